@@ -1,18 +1,10 @@
 package com.example;
 
-import com.mojang.authlib.properties.Property;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
-import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.component.DataComponents;
 import net.minecraft.network.chat.Component;
-import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.decoration.ArmorStand;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.component.ResolvableProfile;
-import net.minecraft.world.phys.AABB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,15 +12,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.Base64;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Captures armor stands with a specific player head texture while walking.
  * Toggle with P key - saves to CSV file with format: _id, zone, x, y, z
  */
-public class ArmorStandCapture {
+public class ArmorStandCapture implements ArmorStandScanner.Matcher {
     private static final Logger LOGGER = LoggerFactory.getLogger("ArmorStandCapture");
     private static ArmorStandCapture instance;
 
@@ -38,7 +27,6 @@ public class ArmorStandCapture {
     private boolean capturing = false;
     private String currentZone = "HUB";
     private int nextId = 1;
-    private final Set<BlockPos> capturedPositions = new HashSet<>();
     private Path outputFile;
     private int scanRadius = 50;
 
@@ -81,9 +69,9 @@ public class ArmorStandCapture {
             return;
         }
 
-        capturedPositions.clear();
         nextId = 1;
         capturing = true;
+        ArmorStandScanner.getInstance().register(this);
 
         sendChatMessage("§a[Armor Stand Capture] Started capturing!");
         sendChatMessage("§e[Armor Stand Capture] Zone: " + currentZone + " | Radius: " + scanRadius);
@@ -93,6 +81,7 @@ public class ArmorStandCapture {
 
     public void stopCapture() {
         capturing = false;
+        ArmorStandScanner.getInstance().unregister(this);
         sendChatMessage("§c[Armor Stand Capture] Stopped capturing.");
         sendChatMessage("§a[Armor Stand Capture] Captured " + (nextId - 1) + " armor stands.");
         if (outputFile != null) {
@@ -110,68 +99,41 @@ public class ArmorStandCapture {
         sendChatMessage("§e[Armor Stand Capture] Scan radius set to: " + radius);
     }
 
+    @Override
+    public int getScanRadius() {
+        return scanRadius;
+    }
+
+    @Override
+    public boolean matches(ArmorStand armorStand) {
+        // Check if it has the target texture
+        String textureUrl = getHeadTextureUrl(armorStand);
+        return textureUrl != null && textureUrl.equals(TARGET_TEXTURE);
+    }
+
     /**
-     * Called every tick to scan for armor stands with the target texture.
+     * Called by the scanner for each new armor stand with the target texture.
      */
-    public void onTick() {
+    @Override
+    public void onMatch(ArmorStand armorStand, BlockPos pos) {
         if (!capturing) return;
 
-        Minecraft mc = Minecraft.getInstance();
-        LocalPlayer player = mc.player;
-        ClientLevel level = mc.level;
+        // Write to file (tab-separated)
+        String line = String.format("%d\t%s\t%d\t%d\t%d\n",
+            nextId, currentZone, pos.getX(), pos.getY(), pos.getZ());
 
-        if (player == null || level == null) return;
-
-        // Define search area around player
-        AABB searchBox = new AABB(
-            player.getX() - scanRadius,
-            level.getMinY(),
-            player.getZ() - scanRadius,
-            player.getX() + scanRadius,
-            level.getMaxY(),
-            player.getZ() + scanRadius
-        );
-
-        // Find all armor stands in the area
-        for (Entity entity : level.getEntities(player, searchBox, e -> e instanceof ArmorStand)) {
-            ArmorStand armorStand = (ArmorStand) entity;
+        try {
+            Files.writeString(outputFile, line, StandardOpenOption.APPEND);
+            LOGGER.info("Captured armor stand #{} at {}, {}, {}", nextId, pos.getX(), pos.getY(), pos.getZ());
 
-            // Check if it has the target texture
-            String textureUrl = getHeadTextureUrl(armorStand);
-            if (textureUrl == null || !textureUrl.equals(TARGET_TEXTURE)) {
-                continue;
+            // Send chat notification every 10 captures
+            if (nextId % 10 == 0) {
+                sendChatMessage("§a[Armor Stand Capture] Captured " + nextId + " armor stands so far...");
             }
 
-            // Get block position (rounded coords) - Y offset +2 for fairy souls
-            BlockPos pos = new BlockPos(
-                (int) Math.floor(armorStand.getX()),
-                (int) Math.floor(armorStand.getY()) + 2,
-                (int) Math.floor(armorStand.getZ())
-            );
-
-            // Skip if already captured
-            if (capturedPositions.contains(pos)) continue;
-
-            // Add to captured set
-            capturedPositions.add(pos);
-
-            // Write to file (tab-separated)
-            String line = String.format("%d\t%s\t%d\t%d\t%d\n",
-                nextId, currentZone, pos.getX(), pos.getY(), pos.getZ());
-
-            try {
-                Files.writeString(outputFile, line, StandardOpenOption.APPEND);
-                LOGGER.info("Captured armor stand #{} at {}, {}, {}", nextId, pos.getX(), pos.getY(), pos.getZ());
-
-                // Send chat notification every 10 captures
-                if (nextId % 10 == 0) {
-                    sendChatMessage("§a[Armor Stand Capture] Captured " + nextId + " armor stands so far...");
-                }
-
-                nextId++;
-            } catch (IOException e) {
-                LOGGER.error("Failed to write to output file", e);
-            }
+            nextId++;
+        } catch (IOException e) {
+            LOGGER.error("Failed to write to output file", e);
         }
     }
 
@@ -179,65 +141,8 @@ public class ArmorStandCapture {
      * Gets the texture URL from an armor stand's head slot, if it has a player head.
      */
     private String getHeadTextureUrl(ArmorStand armorStand) {
-        ItemStack headItem = armorStand.getItemBySlot(EquipmentSlot.HEAD);
-        if (headItem.isEmpty() || !headItem.has(DataComponents.PROFILE)) {
-            return null;
-        }
-
-        ResolvableProfile profile = headItem.get(DataComponents.PROFILE);
-        if (profile == null) {
-            return null;
-        }
-
-        try {
-            var gameProfile = profile.partialProfile();
-            var properties = gameProfile.properties();
-            if (properties != null && properties.containsKey("textures")) {
-                for (Property property : properties.get("textures")) {
-                    String textureValue = property.value();
-                    try {
-                        String decoded = new String(Base64.getDecoder().decode(textureValue));
-                        return extractSkinUrl(decoded);
-                    } catch (Exception e) {
-                        // Couldn't decode
-                    }
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.warn("Failed to get head texture URL", e);
-        }
-
-        return null;
-    }
-
-    private String extractSkinUrl(String decoded) {
-        // Extract URL from JSON like: {"textures":{"SKIN":{"url":"http://..."}}}
-        try {
-            int skinIndex = decoded.indexOf("\"SKIN\"");
-            if (skinIndex == -1) {
-                skinIndex = decoded.indexOf("SKIN");
-            }
-            if (skinIndex == -1) return null;
-
-            int urlIndex = decoded.indexOf("\"url\"", skinIndex);
-            if (urlIndex == -1) {
-                urlIndex = decoded.indexOf("url", skinIndex);
-            }
-            if (urlIndex == -1) return null;
-
-            int colonIndex = decoded.indexOf(":", urlIndex);
-            if (colonIndex == -1) return null;
-
-            int urlStart = decoded.indexOf("\"", colonIndex) + 1;
-            int urlEnd = decoded.indexOf("\"", urlStart);
-
-            if (urlStart > 0 && urlEnd > urlStart) {
-                return decoded.substring(urlStart, urlEnd);
-            }
-        } catch (Exception e) {
-            LOGGER.warn("Failed to extract skin URL", e);
-        }
-        return null;
+        SkinTextures.Texture texture = SkinTextures.getInstance().fromStack(armorStand.getItemBySlot(EquipmentSlot.HEAD));
+        return texture != null ? texture.skinUrl() : null;
     }
 
     public boolean isCapturing() {
@@ -0,0 +1,115 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.decoration.ArmorStand;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One armor stand scan shared by every capture that looks for armor stands.
+ * Each scan runs a single entity query sized to the largest radius any registered matcher
+ * wants, rounds each stand's position once and hands it to every matcher in range. Each
+ * matcher sees a position at most once while it is registered, so running several captures
+ * costs one scan, not one per capture. The scan runs every tick while any matcher is
+ * registered; the interval is fixed.
+ */
+public class ArmorStandScanner {
+    private static ArmorStandScanner instance;
+
+    private final List<Registration> registrations = new ArrayList<>();
+
+    private ArmorStandScanner() {}
+
+    public static ArmorStandScanner getInstance() {
+        if (instance == null) {
+            instance = new ArmorStandScanner();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts feeding armor stands to the matcher, with an empty set of seen positions.
+     */
+    public void register(Matcher matcher) {
+        unregister(matcher);
+        registrations.add(new Registration(matcher, new LongOpenHashSet()));
+    }
+
+    public void unregister(Matcher matcher) {
+        registrations.removeIf(registration -> registration.matcher() == matcher);
+    }
+
+    public void onTick() {
+        if (registrations.isEmpty()) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        LocalPlayer player = mc.player;
+        ClientLevel level = mc.level;
+        if (player == null || level == null) return;
+
+        int radius = 0;
+        for (Registration registration : registrations) {
+            radius = Math.max(radius, registration.matcher().getScanRadius());
+        }
+
+        // Full height: fairy souls and similar markers can sit far above or below the player
+        AABB searchBox = new AABB(
+            player.getX() - radius,
+            level.getMinY(),
+            player.getZ() - radius,
+            player.getX() + radius,
+            level.getMaxY(),
+            player.getZ() + radius
+        );
+
+        for (ArmorStand armorStand : level.getEntitiesOfClass(ArmorStand.class, searchBox)) {
+            double dx = Math.abs(armorStand.getX() - player.getX());
+            double dz = Math.abs(armorStand.getZ() - player.getZ());
+
+            // Block position (rounded coords) - Y offset +2 for fairy souls
+            int x = (int) Math.floor(armorStand.getX());
+            int y = (int) Math.floor(armorStand.getY()) + 2;
+            int z = (int) Math.floor(armorStand.getZ());
+            long key = BlockPos.asLong(x, y, z);
+            BlockPos pos = null;
+
+            for (Registration registration : registrations) {
+                Matcher matcher = registration.matcher();
+                int matcherRadius = matcher.getScanRadius();
+                if (dx > matcherRadius || dz > matcherRadius) continue;
+                if (registration.seen().contains(key) || !matcher.matches(armorStand)) continue;
+
+                registration.seen().add(key);
+                if (pos == null) {
+                    pos = new BlockPos(x, y, z);
+                }
+                matcher.onMatch(armorStand, pos);
+            }
+        }
+    }
+
+    /**
+     * Something to look for in armor stands near the player.
+     */
+    public interface Matcher {
+        /**
+         * Horizontal distance from the player to scan, in blocks.
+         */
+        int getScanRadius();
+
+        boolean matches(ArmorStand armorStand);
+
+        /**
+         * Called once per matching position while the matcher is registered.
+         */
+        void onMatch(ArmorStand armorStand, BlockPos pos);
+    }
+
+    private record Registration(Matcher matcher, LongOpenHashSet seen) {}
+}
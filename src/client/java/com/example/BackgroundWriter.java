@@ -0,0 +1,119 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Appends lines to a file from a dedicated thread.
+ * Callers only enqueue, so the client thread never blocks on disk. The writer flushes
+ * every time the queue runs dry, so a crash loses at most the lines still in flight.
+ * If writing fails, the queue is dropped, later lines are discarded and the future returned
+ * by {@link #close()} completes exceptionally with the error.
+ */
+public class BackgroundWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("BackgroundWriter");
+
+    // Compared by identity to tell the writer thread to finish
+    private static final String CLOSE_MARKER = new String("<close>");
+
+    private final Path path;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private volatile boolean closing = false;
+    private volatile boolean failed = false;
+    private volatile boolean warnedDrop = false;
+
+    public BackgroundWriter(Path path, String threadName) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        Thread thread = new Thread(() -> run(writer), threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * True once a write has failed; nothing more will reach the file.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Queues a line for writing. The line separator is added by the writer.
+     */
+    public void writeLine(String line) {
+        if (closing) {
+            if (!warnedDrop) {
+                warnedDrop = true;
+                LOGGER.warn("Dropping lines written to {} after it was {}", path, failed ? "failed" : "closed");
+            }
+            return;
+        }
+        queue.add(line);
+        if (failed) {
+            // Raced with the writer thread failing; nothing drains the queue any more
+            queue.clear();
+        }
+    }
+
+    /**
+     * Finishes writing everything queued so far and closes the file.
+     * The returned future completes on the writer thread once the file is closed, or
+     * exceptionally if a write failed.
+     */
+    public CompletableFuture<Void> close() {
+        if (!closing) {
+            closing = true;
+            queue.add(CLOSE_MARKER);
+        }
+        return closed;
+    }
+
+    private void run(BufferedWriter writer) {
+        try (writer) {
+            boolean done = false;
+            while (!done) {
+                String line = queue.take();
+                while (line != null) {
+                    if (line == CLOSE_MARKER) {
+                        done = true;
+                        break;
+                    }
+                    writer.write(line);
+                    writer.newLine();
+                    line = queue.poll();
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to write to {}", path, e);
+            failed = true;
+            closing = true;
+            queue.clear();
+            closed.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed.complete(null);
+        }
+    }
+}
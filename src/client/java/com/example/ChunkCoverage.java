@@ -0,0 +1,84 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Compact record of which chunks have been saved.
+ * One bit per chunk, grouped by region: a 32x32 region is 16 longs, so hundreds of
+ * thousands of chunks fit in a few hundred KiB instead of one ChunkPos object each.
+ * Not thread-safe; only touched from the client thread.
+ */
+public class ChunkCoverage {
+    private static final int WORDS_PER_REGION = 1024 / 64;
+
+    private final Long2ObjectMap<long[]> regions = new Long2ObjectOpenHashMap<>();
+    private int size = 0;
+
+    /**
+     * Marks a chunk as saved. Returns false if it was already marked.
+     */
+    public boolean add(int chunkX, int chunkZ) {
+        long[] words = regions.computeIfAbsent(regionKey(chunkX >> 5, chunkZ >> 5), k -> new long[WORDS_PER_REGION]);
+        int bit = (chunkX & 31) + ((chunkZ & 31) << 5);
+        long mask = 1L << (bit & 63);
+        if ((words[bit >> 6] & mask) != 0) {
+            return false;
+        }
+        words[bit >> 6] |= mask;
+        size++;
+        return true;
+    }
+
+    public boolean contains(int chunkX, int chunkZ) {
+        long[] words = regions.get(regionKey(chunkX >> 5, chunkZ >> 5));
+        if (words == null) return false;
+        int bit = (chunkX & 31) + ((chunkZ & 31) << 5);
+        return (words[bit >> 6] & (1L << (bit & 63))) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        regions.clear();
+        size = 0;
+    }
+
+    /**
+     * Visits every saved chunk inside the given chunk rectangle (inclusive min, exclusive max).
+     * Only regions overlapping the rectangle are looked up, and empty words are skipped.
+     */
+    public void forEachInArea(int minX, int minZ, int maxX, int maxZ, ChunkVisitor visitor) {
+        for (int regionX = minX >> 5; regionX <= (maxX - 1) >> 5; regionX++) {
+            for (int regionZ = minZ >> 5; regionZ <= (maxZ - 1) >> 5; regionZ++) {
+                long[] words = regions.get(regionKey(regionX, regionZ));
+                if (words == null) continue;
+
+                for (int w = 0; w < WORDS_PER_REGION; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        int bit = (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+
+                        int chunkX = (regionX << 5) + (bit & 31);
+                        int chunkZ = (regionZ << 5) + (bit >> 5);
+                        if (chunkX >= minX && chunkX < maxX && chunkZ >= minZ && chunkZ < maxZ) {
+                            visitor.visit(chunkX, chunkZ);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long regionKey(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    @FunctionalInterface
+    public interface ChunkVisitor {
+        void visit(int chunkX, int chunkZ);
+    }
+}
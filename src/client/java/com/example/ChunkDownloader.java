@@ -26,10 +26,17 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class ChunkDownloader {
     public static final Logger LOGGER = LoggerFactory.getLogger("ChunkDownloader");
@@ -39,12 +46,30 @@ public class ChunkDownloader {
     private boolean downloading = false;
     private Path saveDirectory;
     private String worldName;
-    private final Set<ChunkPos> savedChunks = ConcurrentHashMap.newKeySet();
+    private final ChunkCoverage savedChunks = new ChunkCoverage();
     private final Map<String, RegionFileWriter> regionFiles = new ConcurrentHashMap<>();
     private final Map<String, RegionFileWriter> entityRegionFiles = new ConcurrentHashMap<>();
     private int chunksDownloaded = 0;
     private int entitiesSaved = 0;
 
+    // Chunks are serialized on the client thread, but deflate runs here across all cores.
+    // Only the sector allocation and write inside RegionFileWriter is ordered per region.
+    private final ExecutorService compressionPool = Executors.newWorkStealingPool();
+    private final Set<CompletableFuture<Void>> pendingWrites = ConcurrentHashMap.newKeySet();
+
+    // level.dat is checkpointed periodically so a crash mid-download still leaves a loadable world.
+    // The static part of the tree is built once per download; checkpoints only refresh the changing fields.
+    private static final int LEVEL_DAT_CHECKPOINT_SECONDS = 30;
+    private final ScheduledExecutorService levelDataExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ST-LevelData");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> levelDataCheckpointTask;
+    private CompoundTag levelDataRoot;
+    // The executor is single threaded, so the latest write finishes after all earlier ones
+    private CompletableFuture<Void> lastLevelDataWrite = CompletableFuture.completedFuture(null);
+
     public static ChunkDownloader getInstance() {
         if (instance == null) {
             instance = new ChunkDownloader();
@@ -86,10 +111,15 @@ public class ChunkDownloader {
             Files.createDirectories(saveDirectory.resolve("data"));
 
             savedChunks.clear();
+            CoverageMap.getInstance().reset();
             chunksDownloaded = 0;
             downloading = true;
 
-            saveLevelData();
+            levelDataRoot = buildLevelDataTemplate();
+            checkpointLevelData();
+            levelDataCheckpointTask = levelDataExecutor.scheduleAtFixedRate(
+                    () -> mc.execute(this::checkpointLevelData),
+                    LEVEL_DAT_CHECKPOINT_SECONDS, LEVEL_DAT_CHECKPOINT_SECONDS, TimeUnit.SECONDS);
 
             // Save all currently loaded chunks
             saveAllLoadedChunks();
@@ -105,13 +135,13 @@ public class ChunkDownloader {
     public void stopDownload() {
         if (!downloading) return;
 
-        downloading = false;
-
-        try {
-            saveLevelData();
-        } catch (IOException e) {
-            LOGGER.error("Failed to save level data on stop", e);
+        if (levelDataCheckpointTask != null) {
+            levelDataCheckpointTask.cancel(false);
+            levelDataCheckpointTask = null;
         }
+        checkpointLevelData();
+
+        downloading = false;
 
         closeRegionFiles();
 
@@ -168,7 +198,7 @@ public class ChunkDownloader {
         if (!downloading || chunk == null) return;
 
         ChunkPos pos = chunk.getPos();
-        if (savedChunks.contains(pos)) return;
+        if (savedChunks.contains(pos.x, pos.z)) return;
 
         try {
             Minecraft mc = Minecraft.getInstance();
@@ -195,8 +225,9 @@ public class ChunkDownloader {
             });
 
             if (regionFile != null) {
-                regionFile.writeChunk(pos, chunkTag);
-                savedChunks.add(pos);
+                writeChunkAsync(regionFile, pos, chunkTag);
+                savedChunks.add(pos.x, pos.z);
+                CoverageMap.getInstance().onChunkSaved(pos.x, pos.z);
                 chunksDownloaded++;
 
                 // Also save entities to separate entities region file
@@ -405,18 +436,53 @@ public class ChunkDownloader {
                 entityChunkTag.put("Entities", entitiesTag);
                 entitiesSaved += entityCount;
 
-                entityFile.writeChunk(pos, entityChunkTag);
+                writeChunkAsync(entityFile, pos, entityChunkTag);
             }
         } catch (Exception e) {
             LOGGER.error("Failed to save entities for chunk {}", pos, e);
         }
     }
 
-    private void saveLevelData() throws IOException {
-        Minecraft mc = Minecraft.getInstance();
-        ClientLevel level = mc.level;
-        if (level == null) return;
+    /**
+     * Compresses the chunk tag on the compression pool and then appends it to the region file.
+     * The tag must not be touched by the caller afterwards.
+     */
+    private void writeChunkAsync(RegionFileWriter regionFile, ChunkPos pos, CompoundTag tag) {
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            try {
+                byte[] compressed = RegionFileWriter.compress(tag);
+                regionFile.writeChunk(pos, compressed);
+            } catch (IOException e) {
+                LOGGER.error("Failed to write chunk at {}", pos, e);
+            }
+        }, compressionPool);
 
+        pendingWrites.add(future);
+        future.whenComplete((result, error) -> pendingWrites.remove(future));
+    }
+
+    private void awaitPendingWrites() {
+        try {
+            CompletableFuture.allOf(pendingWrites.toArray(new CompletableFuture[0])).join();
+        } catch (Exception e) {
+            LOGGER.error("Failed waiting for pending chunk writes", e);
+        }
+    }
+
+    private void awaitLevelDataWrite() {
+        try {
+            lastLevelDataWrite.join();
+        } catch (Exception e) {
+            LOGGER.error("Failed waiting for level.dat checkpoint", e);
+        }
+    }
+
+    /**
+     * Builds the parts of level.dat that never change during a download: game rules,
+     * dimension generators and version info. Checkpoints only overwrite the fields in
+     * {@link #writeLevelData}.
+     */
+    private CompoundTag buildLevelDataTemplate() {
         CompoundTag root = new CompoundTag();
         CompoundTag data = new CompoundTag();
 
@@ -426,9 +492,6 @@ public class ChunkDownloader {
         data.putBoolean("allowCommands", true);
         data.putInt("GameType", 1);
         data.putBoolean("hardcore", false);
-        data.putLong("Time", level.getGameTime());
-        data.putLong("DayTime", level.getDayTime());
-        data.putLong("LastPlayed", System.currentTimeMillis());
         data.putInt("clearWeatherTime", 0);
         data.putInt("rainTime", 0);
         data.putBoolean("raining", false);
@@ -443,17 +506,6 @@ public class ChunkDownloader {
         data.putByte("Difficulty", (byte) 2);
         data.putBoolean("DifficultyLocked", false);
 
-        if (mc.player != null) {
-            BlockPos playerPos = mc.player.blockPosition();
-            data.putInt("SpawnX", playerPos.getX());
-            data.putInt("SpawnY", playerPos.getY());
-            data.putInt("SpawnZ", playerPos.getZ());
-        } else {
-            data.putInt("SpawnX", 0);
-            data.putInt("SpawnY", 64);
-            data.putInt("SpawnZ", 0);
-        }
-
         CompoundTag worldGenSettings = new CompoundTag();
         worldGenSettings.putLong("seed", 0L);
         worldGenSettings.putBoolean("generate_features", true);
@@ -552,14 +604,69 @@ public class ChunkDownloader {
         data.put("GameRules", gameRules);
 
         root.put("Data", data);
+        return root;
+    }
+
+    /**
+     * Snapshots the changing level.dat fields on the client thread and hands them to the
+     * background writer. Cheap enough to call every few seconds.
+     */
+    private void checkpointLevelData() {
+        if (!downloading || levelDataRoot == null) return;
 
-        Path levelDatPath = saveDirectory.resolve("level.dat");
-        NbtIo.writeCompressed(root, levelDatPath);
+        Minecraft mc = Minecraft.getInstance();
+        ClientLevel level = mc.level;
+        if (level == null) return;
 
-        LOGGER.info("Saved level.dat to {}", levelDatPath);
+        BlockPos spawn = mc.player != null ? mc.player.blockPosition() : new BlockPos(0, 64, 0);
+        LevelDataSnapshot snapshot = new LevelDataSnapshot(
+                saveDirectory, levelDataRoot, level.getGameTime(), level.getDayTime(),
+                System.currentTimeMillis(), spawn);
+
+        lastLevelDataWrite = CompletableFuture.runAsync(() -> writeLevelData(snapshot), levelDataExecutor);
+    }
+
+    /**
+     * Runs on the level data thread. The template is only ever mutated here, so the
+     * fields can be updated in place without copying the tree.
+     */
+    private void writeLevelData(LevelDataSnapshot snapshot) {
+        CompoundTag root = snapshot.root();
+        CompoundTag data = (CompoundTag) root.get("Data");
+        data.putLong("Time", snapshot.gameTime());
+        data.putLong("DayTime", snapshot.dayTime());
+        data.putLong("LastPlayed", snapshot.lastPlayed());
+        data.putInt("SpawnX", snapshot.spawn().getX());
+        data.putInt("SpawnY", snapshot.spawn().getY());
+        data.putInt("SpawnZ", snapshot.spawn().getZ());
+
+        // Write to a temp file and rename so level.dat is never left half-written
+        Path levelDatPath = snapshot.saveDirectory().resolve("level.dat");
+        Path tempPath = snapshot.saveDirectory().resolve("level.dat_new");
+        try {
+            NbtIo.writeCompressed(root, tempPath);
+            Files.move(tempPath, levelDatPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.debug("Checkpointed level.dat to {}", levelDatPath);
+        } catch (IOException e) {
+            LOGGER.error("Failed to checkpoint level.dat", e);
+        }
     }
 
+    private record LevelDataSnapshot(
+            Path saveDirectory,
+            CompoundTag root,
+            long gameTime,
+            long dayTime,
+            long lastPlayed,
+            BlockPos spawn
+    ) {}
+
     private void closeRegionFiles() {
+        // Region files must not be closed while compressed chunks are still queued for them
+        awaitPendingWrites();
+        // The level data thread is a daemon, so the final checkpoint would be lost if the game exits now
+        awaitLevelDataWrite();
+
         for (RegionFileWriter regionFile : regionFiles.values()) {
             try {
                 if (regionFile != null) {
@@ -595,6 +702,10 @@ public class ChunkDownloader {
         return chunksDownloaded;
     }
 
+    public ChunkCoverage getCoverage() {
+        return savedChunks;
+    }
+
     public void onDisconnect() {
         if (downloading) {
             stopDownload();
@@ -638,17 +749,25 @@ public class ChunkDownloader {
             }
         }
 
-        public synchronized void writeChunk(ChunkPos pos, CompoundTag tag) throws IOException {
-            int localX = pos.x & 31;
-            int localZ = pos.z & 31;
-            int index = localX + localZ * 32;
-
+        /**
+         * Deflates a chunk tag. Safe to call from any thread, the heavy part of a chunk write.
+         */
+        public static byte[] compress(CompoundTag tag) throws IOException {
             java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
             java.util.zip.DeflaterOutputStream dos = new java.util.zip.DeflaterOutputStream(baos);
             NbtIo.write(tag, new java.io.DataOutputStream(dos));
             dos.close();
+            return baos.toByteArray();
+        }
+
+        /**
+         * Allocates sectors and writes already-compressed chunk data. Only this part is serialized per region.
+         */
+        public synchronized void writeChunk(ChunkPos pos, byte[] compressed) throws IOException {
+            int localX = pos.x & 31;
+            int localZ = pos.z & 31;
+            int index = localX + localZ * 32;
 
-            byte[] compressed = baos.toByteArray();
             int length = compressed.length + 5;
             int sectorsNeeded = (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
 
@@ -661,8 +780,8 @@ public class ChunkDownloader {
             file.write(compressed);
 
             int padding = (sectorsNeeded * SECTOR_SIZE) - length;
-            for (int i = 0; i < padding; i++) {
-                file.writeByte(0);
+            if (padding > 0) {
+                file.write(new byte[padding]);
             }
 
             offsets[index] = (sectorOffset << 8) | sectorsNeeded;
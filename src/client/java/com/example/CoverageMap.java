@@ -0,0 +1,170 @@
+package com.example;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.client.DeltaTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.RenderPipelines;
+import net.minecraft.client.renderer.texture.DynamicTexture;
+import net.minecraft.resources.Identifier;
+
+/**
+ * Minimap of downloaded chunks, drawn from the downloader's {@link ChunkCoverage}.
+ * One texture pixel per chunk. Newly saved chunks are written as single pixels and only
+ * the dirty rectangle is uploaded, so the cost per frame does not grow with the number
+ * of saved chunks. The texture covers a window around the player and is only rebuilt
+ * from the bitset when the player walks near its edge.
+ */
+public class CoverageMap {
+    private static CoverageMap instance;
+
+    public static final Identifier TEXTURE_ID = Identifier.fromNamespaceAndPath(ServerToolsClient.MOD_ID, "coverage_map");
+
+    // Texture window in chunks (and pixels)
+    private static final int WINDOW_SIZE = 512;
+    // Re-center when the player gets this close to the window edge
+    private static final int RECENTER_MARGIN = 96;
+    // HUD overlay size in GUI pixels, one chunk per pixel
+    private static final int HUD_SIZE = 96;
+
+    private static final int COLOR_BACKGROUND = 0xA0101010;
+    private static final int COLOR_SAVED = 0xFF3FBF3F;
+    private static final int COLOR_PLAYER = 0xFFFFFFFF;
+
+    private DynamicTexture texture;
+    private int originX;
+    private int originZ;
+    private boolean needsRebuild = true;
+    private final LongArrayList pendingChunks = new LongArrayList();
+
+    private CoverageMap() {}
+
+    public static CoverageMap getInstance() {
+        if (instance == null) {
+            instance = new CoverageMap();
+        }
+        return instance;
+    }
+
+    /**
+     * Called by the downloader for each newly saved chunk.
+     */
+    public void onChunkSaved(int chunkX, int chunkZ) {
+        if (needsRebuild) return;
+        pendingChunks.add(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Called when a new download starts so the next frame redraws from the empty bitset.
+     */
+    public void reset() {
+        pendingChunks.clear();
+        needsRebuild = true;
+    }
+
+    /**
+     * HUD overlay: a small window around the player, shown while downloading.
+     */
+    public void renderHud(GuiGraphics graphics, DeltaTracker deltaTracker) {
+        ChunkDownloader downloader = ChunkDownloader.getInstance();
+        Minecraft mc = Minecraft.getInstance();
+        if (!downloader.isDownloading() || mc.player == null || mc.options.hideGui) return;
+
+        int playerX = mc.player.chunkPosition().x;
+        int playerZ = mc.player.chunkPosition().z;
+        update(playerX, playerZ);
+
+        int x = graphics.guiWidth() - HUD_SIZE - 4;
+        int y = 4;
+        int u = playerX - originX - HUD_SIZE / 2;
+        int v = playerZ - originZ - HUD_SIZE / 2;
+
+        graphics.blit(RenderPipelines.GUI_TEXTURED, TEXTURE_ID, x, y, u, v, HUD_SIZE, HUD_SIZE, WINDOW_SIZE, WINDOW_SIZE);
+        graphics.fill(x + HUD_SIZE / 2 - 1, y + HUD_SIZE / 2 - 1, x + HUD_SIZE / 2 + 1, y + HUD_SIZE / 2 + 1, COLOR_PLAYER);
+        graphics.renderOutline(x - 1, y - 1, HUD_SIZE + 2, HUD_SIZE + 2, 0xFF000000);
+        graphics.drawString(mc.font, downloader.getChunksDownloaded() + " chunks", x, y + HUD_SIZE + 3, 0xFFFFFFFF, true);
+    }
+
+    /**
+     * Draws the whole texture window scaled to the given square, centered on the player.
+     */
+    public void renderFull(GuiGraphics graphics, int x, int y, int size) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player == null) return;
+
+        int playerX = mc.player.chunkPosition().x;
+        int playerZ = mc.player.chunkPosition().z;
+        update(playerX, playerZ);
+
+        graphics.blit(RenderPipelines.GUI_TEXTURED, TEXTURE_ID, x, y, 0, 0, size, size, WINDOW_SIZE, WINDOW_SIZE, WINDOW_SIZE, WINDOW_SIZE);
+
+        int markerX = x + (playerX - originX) * size / WINDOW_SIZE;
+        int markerY = y + (playerZ - originZ) * size / WINDOW_SIZE;
+        graphics.fill(markerX - 1, markerY - 1, markerX + 2, markerY + 2, COLOR_PLAYER);
+        graphics.renderOutline(x - 1, y - 1, size + 2, size + 2, 0xFF000000);
+    }
+
+    /**
+     * Brings the texture up to date: full rebuild when re-centering, otherwise just the pending pixels.
+     */
+    private void update(int playerX, int playerZ) {
+        if (texture == null) {
+            texture = new DynamicTexture(() -> "servertools coverage map", WINDOW_SIZE, WINDOW_SIZE, false);
+            Minecraft.getInstance().getTextureManager().register(TEXTURE_ID, texture);
+            needsRebuild = true;
+        }
+
+        int relX = playerX - originX;
+        int relZ = playerZ - originZ;
+        if (relX < RECENTER_MARGIN || relX >= WINDOW_SIZE - RECENTER_MARGIN
+                || relZ < RECENTER_MARGIN || relZ >= WINDOW_SIZE - RECENTER_MARGIN) {
+            originX = playerX - WINDOW_SIZE / 2;
+            originZ = playerZ - WINDOW_SIZE / 2;
+            needsRebuild = true;
+        }
+
+        NativeImage pixels = texture.getPixels();
+        if (pixels == null) return;
+
+        if (needsRebuild) {
+            rebuild(pixels);
+            return;
+        }
+
+        if (pendingChunks.isEmpty()) return;
+
+        int minX = WINDOW_SIZE, minZ = WINDOW_SIZE, maxX = -1, maxZ = -1;
+        for (int i = 0; i < pendingChunks.size(); i++) {
+            long packed = pendingChunks.getLong(i);
+            int px = (int) (packed >> 32) - originX;
+            int pz = (int) packed - originZ;
+            if (px < 0 || px >= WINDOW_SIZE || pz < 0 || pz >= WINDOW_SIZE) continue;
+
+            pixels.setPixel(px, pz, COLOR_SAVED);
+            minX = Math.min(minX, px);
+            minZ = Math.min(minZ, pz);
+            maxX = Math.max(maxX, px);
+            maxZ = Math.max(maxZ, pz);
+        }
+        pendingChunks.clear();
+
+        if (maxX >= 0) {
+            int width = maxX - minX + 1;
+            int height = maxZ - minZ + 1;
+            RenderSystem.getDevice().createCommandEncoder()
+                    .writeToTexture(texture.getTexture(), pixels, 0, 0, minX, minZ, width, height, minX, minZ);
+        }
+    }
+
+    private void rebuild(NativeImage pixels) {
+        pixels.fillRect(0, 0, WINDOW_SIZE, WINDOW_SIZE, COLOR_BACKGROUND);
+        ChunkDownloader.getInstance().getCoverage().forEachInArea(
+                originX, originZ, originX + WINDOW_SIZE, originZ + WINDOW_SIZE,
+                (chunkX, chunkZ) -> pixels.setPixel(chunkX - originX, chunkZ - originZ, COLOR_SAVED));
+        texture.upload();
+        pendingChunks.clear();
+        needsRebuild = false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example;
+
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.Component;
+
+/**
+ * Full-screen view of the downloaded chunk coverage. Opened with M.
+ */
+public class CoverageMapScreen extends Screen {
+
+    public CoverageMapScreen() {
+        super(Component.literal("Downloaded Chunks"));
+    }
+
+    @Override
+    public void render(GuiGraphics graphics, int mouseX, int mouseY, float partialTick) {
+        super.render(graphics, mouseX, mouseY, partialTick);
+
+        int size = Math.min(width, height) - 40;
+        int x = (width - size) / 2;
+        int y = 24;
+
+        graphics.drawCenteredString(font, title, width / 2, 8, 0xFFFFFFFF);
+        CoverageMap.getInstance().renderFull(graphics, x, y, size);
+
+        ChunkDownloader downloader = ChunkDownloader.getInstance();
+        String status = downloader.isDownloading()
+                ? downloader.getChunksDownloaded() + " chunks saved"
+                : "Not downloading (F9 to start)";
+        graphics.drawCenteredString(font, status, width / 2, y + size + 4, 0xFFAAAAAA);
+    }
+
+    @Override
+    public boolean isPauseScreen() {
+        return false;
+    }
+}
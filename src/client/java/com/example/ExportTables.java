@@ -0,0 +1,180 @@
+package com.example;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mojang.authlib.properties.Property;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.component.ResolvableProfile;
+import net.minecraft.world.item.enchantment.ItemEnchantments;
+
+import java.util.function.Consumer;
+
+/**
+ * Shared string and item-definition tables for structured JSONL exports.
+ * Strings (names, lore lines, textures) and item definitions are written once, the first time
+ * they are used, as their own lines; records then refer to them by number. An item is keyed by
+ * its item and components, so a stack seen again costs one hash lookup and is written as
+ * {@code [ref, count]} instead of being rendered again. References are only meaningful within
+ * the file the tables wrote to, so every export file gets its own instance.
+ *
+ * Table lines:
+ * <pre>
+ * {"type":"str","ref":0,"value":"§6Legendary Sword"}
+ * {"type":"item","ref":0,"item":{"id":s,"name":s,"lore":[s,..],"enchantments":[[s,level],..],
+ *                               "durability":d,"maxDurability":m,"owner":s,"uuid":"..","texture":s}}
+ * </pre>
+ * where {@code s} is a string reference. Table lines always precede the first record that
+ * refers to them, so a file can be resolved in a single pass.
+ * Not thread-safe; used from the client thread.
+ */
+public class ExportTables {
+    public static final int EMPTY = -1;
+
+    // Same item with the same components, regardless of count
+    private static final Hash.Strategy<ItemStack> ITEM_STRATEGY = new Hash.Strategy<>() {
+        @Override
+        public int hashCode(ItemStack stack) {
+            return stack == null ? 0 : ItemStack.hashItemAndComponents(stack);
+        }
+
+        @Override
+        public boolean equals(ItemStack a, ItemStack b) {
+            if (a == b) return true;
+            if (a == null || b == null) return false;
+            return ItemStack.isSameItemSameComponents(a, b);
+        }
+    };
+
+    private final Consumer<String> output;
+    private final Object2IntOpenHashMap<String> strings = new Object2IntOpenHashMap<>();
+    private final Object2IntOpenCustomHashMap<ItemStack> items = new Object2IntOpenCustomHashMap<>(ITEM_STRATEGY);
+
+    /**
+     * @param output receives table lines; normally {@link BackgroundWriter#writeLine}
+     */
+    public ExportTables(Consumer<String> output) {
+        this.output = output;
+        strings.defaultReturnValue(EMPTY);
+        items.defaultReturnValue(EMPTY);
+    }
+
+    public int getStringCount() {
+        return strings.size();
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * Returns the reference for a string, writing it to the table on first use.
+     */
+    public int string(String value) {
+        int ref = strings.getInt(value);
+        if (ref != EMPTY) return ref;
+
+        ref = strings.size();
+        strings.put(value, ref);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "str");
+        json.addProperty("ref", ref);
+        json.addProperty("value", value);
+        output.accept(json.toString());
+        return ref;
+    }
+
+    /**
+     * Returns the reference for a stack's definition (count excluded), writing it on first use.
+     */
+    public int item(ItemStack stack) {
+        if (stack.isEmpty()) return EMPTY;
+
+        int ref = items.getInt(stack);
+        if (ref != EMPTY) return ref;
+
+        // The definition's strings are written before the definition that refers to them
+        JsonObject definition = itemDefinition(stack);
+        ref = items.size();
+        items.put(stack.copyWithCount(1), ref);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "item");
+        json.addProperty("ref", ref);
+        json.add("item", definition);
+        output.accept(json.toString());
+        return ref;
+    }
+
+    /**
+     * A stack as {@code [ref, count]}, or null when empty.
+     */
+    public JsonArray stack(ItemStack stack) {
+        if (stack.isEmpty()) return null;
+        JsonArray json = new JsonArray();
+        json.add(item(stack));
+        json.add(stack.getCount());
+        return json;
+    }
+
+    private JsonObject itemDefinition(ItemStack stack) {
+        MenuCapture text = MenuCapture.getInstance();
+        JsonObject json = new JsonObject();
+        json.addProperty("id", string(BuiltInRegistries.ITEM.getKey(stack.getItem()).toString()));
+
+        Component customName = stack.get(DataComponents.CUSTOM_NAME);
+        if (customName != null) {
+            json.addProperty("name", string(text.componentToColorString(customName)));
+        }
+
+        var lore = stack.get(DataComponents.LORE);
+        if (lore != null && !lore.lines().isEmpty()) {
+            JsonArray lines = new JsonArray();
+            for (Component line : lore.lines()) {
+                lines.add(string(text.componentToColorString(line)));
+            }
+            json.add("lore", lines);
+        }
+
+        ItemEnchantments enchants = stack.get(DataComponents.ENCHANTMENTS);
+        if (enchants != null && !enchants.isEmpty()) {
+            JsonArray enchantments = new JsonArray();
+            enchants.entrySet().forEach(entry -> {
+                JsonArray enchantment = new JsonArray();
+                enchantment.add(string(entry.getKey().unwrapKey()
+                    .map(key -> key.identifier().toString()).orElse("unknown")));
+                enchantment.add(entry.getIntValue());
+                enchantments.add(enchantment);
+            });
+            json.add("enchantments", enchantments);
+        }
+
+        if (stack.isDamaged()) {
+            json.addProperty("durability", stack.getMaxDamage() - stack.getDamageValue());
+            json.addProperty("maxDurability", stack.getMaxDamage());
+        }
+
+        ResolvableProfile profile = stack.get(DataComponents.PROFILE);
+        if (profile != null) {
+            profile.name().ifPresent(name -> json.addProperty("owner", string(name)));
+            var gameProfile = profile.partialProfile();
+            if (gameProfile.id() != null) {
+                json.addProperty("uuid", gameProfile.id().toString());
+            }
+            var properties = gameProfile.properties();
+            if (properties != null && properties.containsKey("textures")) {
+                for (Property property : properties.get("textures")) {
+                    json.addProperty("texture", string(property.value()));
+                }
+            }
+        }
+
+        return json;
+    }
+}
@@ -1,16 +1,12 @@
 package com.example;
 
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ClientLevel;
-import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
-import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.decoration.ArmorStand;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
-import net.minecraft.world.phys.AABB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,21 +14,18 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Captures armor stands with player heads while walking around the world.
  * Saves them in TSV format: _id, zone, x, y, z
  */
-public class HeadCapture {
+public class HeadCapture implements ArmorStandScanner.Matcher {
     private static final Logger LOGGER = LoggerFactory.getLogger("HeadCapture");
     private static HeadCapture instance;
 
     private boolean capturing = false;
     private String currentZone = "HUB";
     private int nextId = 1;
-    private final Set<BlockPos> capturedPositions = new HashSet<>();
     private Path outputFile;
     private int scanRadius = 50;
 
@@ -75,9 +68,9 @@ public class HeadCapture {
             return;
         }
 
-        capturedPositions.clear();
         nextId = 1;
         capturing = true;
+        ArmorStandScanner.getInstance().register(this);
 
         sendChatMessage("§a[Head Capture] Started capturing armor stands with player heads!");
         sendChatMessage("§e[Head Capture] Zone: " + currentZone + " | Radius: " + scanRadius);
@@ -86,6 +79,7 @@ public class HeadCapture {
 
     public void stopCapture() {
         capturing = false;
+        ArmorStandScanner.getInstance().unregister(this);
         sendChatMessage("§c[Head Capture] Stopped capturing.");
         sendChatMessage("§a[Head Capture] Captured " + (nextId - 1) + " armor stands with player heads.");
         if (outputFile != null) {
@@ -103,69 +97,41 @@ public class HeadCapture {
         sendChatMessage("§e[Head Capture] Scan radius set to: " + radius);
     }
 
+    @Override
+    public int getScanRadius() {
+        return scanRadius;
+    }
+
+    @Override
+    public boolean matches(ArmorStand armorStand) {
+        // Check if the item is a player head
+        ItemStack headItem = armorStand.getItemBySlot(EquipmentSlot.HEAD);
+        return !headItem.isEmpty() && headItem.getItem() == Items.PLAYER_HEAD;
+    }
+
     /**
-     * Called every tick to scan for armor stands with player heads.
+     * Called by the scanner for each new armor stand with a player head.
      */
-    public void onTick() {
+    @Override
+    public void onMatch(ArmorStand armorStand, BlockPos pos) {
         if (!capturing) return;
 
-        Minecraft mc = Minecraft.getInstance();
-        LocalPlayer player = mc.player;
-        ClientLevel level = mc.level;
-
-        if (player == null || level == null) return;
-
-        // Define search area around player
-        AABB searchBox = new AABB(
-            player.getX() - scanRadius,
-            level.getMinY(),
-            player.getZ() - scanRadius,
-            player.getX() + scanRadius,
-            level.getMaxY(),
-            player.getZ() + scanRadius
-        );
-
-        // Find all armor stands in the area
-        for (Entity entity : level.getEntities(player, searchBox, e -> e instanceof ArmorStand)) {
-            ArmorStand armorStand = (ArmorStand) entity;
-
-            // Check if it has a player head
-            ItemStack headItem = armorStand.getItemBySlot(EquipmentSlot.HEAD);
-            if (headItem.isEmpty()) continue;
-
-            // Check if the item is a player head
-            if (headItem.getItem() != Items.PLAYER_HEAD) continue;
-
-            // Get block position (rounded coords) - Y offset +2 for fairy souls
-            BlockPos pos = new BlockPos(
-                (int) Math.floor(armorStand.getX()),
-                (int) Math.floor(armorStand.getY()) + 2,
-                (int) Math.floor(armorStand.getZ())
-            );
-
-            // Skip if already captured
-            if (capturedPositions.contains(pos)) continue;
-
-            // Add to captured set
-            capturedPositions.add(pos);
-
-            // Write to file
-            String line = String.format("%d\t%s\t%d\t%d\t%d\n",
-                nextId, currentZone, pos.getX(), pos.getY(), pos.getZ());
-
-            try {
-                Files.writeString(outputFile, line, StandardOpenOption.APPEND);
-                LOGGER.info("Captured head #{} at {}, {}, {}", nextId, pos.getX(), pos.getY(), pos.getZ());
-
-                // Send chat notification every 10 captures
-                if (nextId % 10 == 0) {
-                    sendChatMessage("§a[Head Capture] Captured " + nextId + " armor stands so far...");
-                }
-
-                nextId++;
-            } catch (IOException e) {
-                LOGGER.error("Failed to write to output file", e);
+        // Write to file
+        String line = String.format("%d\t%s\t%d\t%d\t%d\n",
+            nextId, currentZone, pos.getX(), pos.getY(), pos.getZ());
+
+        try {
+            Files.writeString(outputFile, line, StandardOpenOption.APPEND);
+            LOGGER.info("Captured head #{} at {}, {}, {}", nextId, pos.getX(), pos.getY(), pos.getZ());
+
+            // Send chat notification every 10 captures
+            if (nextId % 10 == 0) {
+                sendChatMessage("§a[Head Capture] Captured " + nextId + " armor stands so far...");
             }
+
+            nextId++;
+        } catch (IOException e) {
+            LOGGER.error("Failed to write to output file", e);
         }
     }
 
@@ -0,0 +1,283 @@
+package com.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an 8-bit palette PNG one row at a time.
+ * Only the deflater window and one IDAT buffer are held in memory, so the image can be
+ * far larger than the heap as long as the caller produces rows in strips.
+ * Rows use filter type 0, which suits palette images.
+ *
+ * Calling {@link #startAnimation} before the first row turns the file into an animated
+ * PNG: the rows form the first frame, and {@link #writeFrame} adds frames that each
+ * replace a sub-rectangle of the previous one.
+ */
+public class IndexedPngWriter implements AutoCloseable {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int IDAT_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final int width;
+    private final int height;
+    private DeflaterOutputStream idat;
+    private int rowsWritten = 0;
+    private boolean imageFinished = false;
+    // Set once a write has thrown; close then only releases the file instead of finishing it
+    private boolean failed = false;
+    // APNG sequence number shared by fcTL and fdAT chunks
+    private int sequence = 0;
+
+    /**
+     * @param palette ARGB colors, at most 256
+     */
+    public IndexedPngWriter(Path path, int width, int height, int[] palette) throws IOException {
+        this.width = width;
+        this.height = height;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.write(SIGNATURE);
+
+        writeIhdr();
+        writePalette(palette);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Writes {@code rows} rows of palette indices from {@code pixels}, which holds rows of
+     * exactly {@link #getWidth()} bytes back to back.
+     */
+    public void writeRows(byte[] pixels, int rows) throws IOException {
+        if (rowsWritten + rows > height) {
+            throw new IllegalStateException("Writing " + rows + " rows past the image height " + height);
+        }
+        if (idat == null) {
+            idat = new DeflaterOutputStream(new ChunkStream("IDAT", false), deflater, IDAT_SIZE);
+        }
+        try {
+            for (int row = 0; row < rows; row++) {
+                idat.write(0);
+                idat.write(pixels, row * width, width);
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        rowsWritten += rows;
+    }
+
+    /**
+     * Makes this an animated PNG. Must be called before any rows are written.
+     * @param frameCount total frames including the first, full-size one
+     * @param firstFrameDelayMs how long the first frame is shown
+     */
+    public void startAnimation(int frameCount, int firstFrameDelayMs) throws IOException {
+        if (idat != null) {
+            throw new IllegalStateException("Animation must start before the first row");
+        }
+        byte[] data = new byte[8];
+        putInt(data, 0, frameCount);
+        putInt(data, 4, 0); // loop forever
+        try {
+            writeChunk("acTL", data, data.length);
+            writeFrameControl(0, 0, width, height, firstFrameDelayMs);
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Adds an animation frame that replaces the given rectangle. {@code pixels} holds
+     * {@code h} rows of {@code w} bytes. The first frame must be complete before this is called.
+     */
+    public void writeFrame(int x, int y, int w, int h, byte[] pixels, int delayMs) throws IOException {
+        finishImage();
+        try {
+            writeFrameControl(x, y, w, h, delayMs);
+
+            deflater.reset();
+            DeflaterOutputStream frame = new DeflaterOutputStream(new ChunkStream("fdAT", true), deflater, IDAT_SIZE);
+            for (int row = 0; row < h; row++) {
+                frame.write(0);
+                frame.write(pixels, row * w, w);
+            }
+            frame.finish();
+            frame.flush();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // After a failed write the row count is wrong anyway; reporting that would only
+            // bury the original error
+            if (!failed) {
+                finishImage();
+                writeChunk("IEND", new byte[0], 0);
+            }
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void finishImage() throws IOException {
+        if (imageFinished) return;
+        if (rowsWritten != height) {
+            throw new IOException("PNG has " + rowsWritten + " of " + height + " rows");
+        }
+        try {
+            idat.finish();
+            idat.flush();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        imageFinished = true;
+    }
+
+    private void writeFrameControl(int x, int y, int w, int h, int delayMs) throws IOException {
+        byte[] data = new byte[26];
+        putInt(data, 0, sequence++);
+        putInt(data, 4, w);
+        putInt(data, 8, h);
+        putInt(data, 12, x);
+        putInt(data, 16, y);
+        int delay = Math.max(0, Math.min(0xFFFF, delayMs));
+        data[20] = (byte) (delay >> 8);
+        data[21] = (byte) delay;
+        data[22] = (byte) (1000 >> 8);
+        data[23] = (byte) 1000;
+        data[24] = 0; // dispose: none
+        data[25] = 0; // blend: source, so transparent pixels replace what was there
+        writeChunk("fcTL", data, data.length);
+    }
+
+    private void writeIhdr() throws IOException {
+        byte[] data = new byte[13];
+        putInt(data, 0, width);
+        putInt(data, 4, height);
+        data[8] = 8;  // bit depth
+        data[9] = 3;  // color type: palette
+        data[10] = 0; // deflate
+        data[11] = 0; // adaptive filtering
+        data[12] = 0; // no interlace
+        writeChunk("IHDR", data, data.length);
+    }
+
+    private void writePalette(int[] palette) throws IOException {
+        byte[] rgb = new byte[palette.length * 3];
+        byte[] alpha = new byte[palette.length];
+        int alphaLength = 0;
+        for (int i = 0; i < palette.length; i++) {
+            rgb[i * 3] = (byte) (palette[i] >> 16);
+            rgb[i * 3 + 1] = (byte) (palette[i] >> 8);
+            rgb[i * 3 + 2] = (byte) palette[i];
+            alpha[i] = (byte) (palette[i] >>> 24);
+            if ((palette[i] >>> 24) != 0xFF) {
+                alphaLength = i + 1;
+            }
+        }
+        writeChunk("PLTE", rgb, rgb.length);
+        // Trailing opaque entries can be left out of tRNS
+        if (alphaLength > 0) {
+            writeChunk("tRNS", alpha, alphaLength);
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void putInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Collects compressed bytes and emits them as IDAT or fdAT chunks of at most
+     * {@link #IDAT_SIZE}. fdAT chunks start with the APNG sequence number.
+     */
+    private class ChunkStream extends OutputStream {
+        private final String type;
+        private final int start;
+        private final byte[] buffer;
+        private int length;
+
+        ChunkStream(String type, boolean sequenced) {
+            this.type = type;
+            this.start = sequenced ? 4 : 0;
+            this.buffer = new byte[start + IDAT_SIZE];
+            this.length = start;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                flushChunk();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(len, buffer.length - length);
+                System.arraycopy(b, off, buffer, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (length > start) {
+                if (start > 0) {
+                    putInt(buffer, 0, sequence++);
+                }
+                writeChunk(type, buffer, length);
+                length = start;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records an animated palette image as one full keyframe plus per-frame deltas.
+ * Patches (one per map) are applied to a working canvas; committing stores, for each patch,
+ * only the bounding rectangle of the pixels that actually changed, so memory grows with the
+ * amount of change rather than with frames times image size. Each rectangle becomes its own
+ * APNG frame, so two maps changing at opposite corners of a wall do not produce a frame
+ * covering the whole wall; all but the last frame of a commit are shown for 0 ms.
+ * Not thread-safe.
+ */
+public class MapAnimation {
+    // Shown after the last frame before the animation loops
+    private static final int LAST_FRAME_DELAY_MS = 1000;
+
+    private final int width;
+    private final int height;
+    private final byte[] keyframe;
+    private final byte[] canvas;
+    private final long startTime;
+    private final List<Frame> frames = new ArrayList<>();
+    private long storedBytes = 0;
+
+    // Changed rectangles since the last commit, one per patch that changed anything
+    private final List<Region> dirtyRegions = new ArrayList<>();
+
+    public MapAnimation(int width, int height, byte[] initial, long startTime) {
+        this.width = width;
+        this.height = height;
+        this.keyframe = initial.clone();
+        this.canvas = initial.clone();
+        this.startTime = startTime;
+    }
+
+    /**
+     * Writes a square patch of palette indices into the canvas, tracking which pixels changed.
+     */
+    public void applyPatch(int x0, int y0, int size, byte[] patch) {
+        int minX = size, minY = size, maxX = -1, maxY = -1;
+        for (int y = 0; y < size; y++) {
+            int row = (y0 + y) * width + x0;
+            int patchRow = y * size;
+            for (int x = 0; x < size; x++) {
+                byte value = patch[patchRow + x];
+                if (canvas[row + x] != value) {
+                    canvas[row + x] = value;
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        if (maxX >= 0) {
+            dirtyRegions.add(new Region(x0 + minX, y0 + minY, maxX - minX + 1, maxY - minY + 1));
+        }
+    }
+
+    /**
+     * Stores the changes applied since the last commit as frames, one per changed patch.
+     */
+    public void commitFrame(long time) {
+        for (Region region : dirtyRegions) {
+            byte[] pixels = new byte[region.w() * region.h()];
+            for (int y = 0; y < region.h(); y++) {
+                System.arraycopy(canvas, (region.y() + y) * width + region.x(), pixels, y * region.w(), region.w());
+            }
+            frames.add(new Frame(time, region.x(), region.y(), region.w(), region.h(), pixels));
+            storedBytes += pixels.length;
+        }
+        dirtyRegions.clear();
+    }
+
+    public int getFrameCount() {
+        return frames.size() + 1;
+    }
+
+    /**
+     * Bytes held by delta frames, not counting the keyframe and canvas.
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Writes the keyframe and all deltas as an animated PNG with real-time frame delays.
+     */
+    public void export(Path path, int[] palette) throws IOException {
+        try (IndexedPngWriter writer = new IndexedPngWriter(path, width, height, palette)) {
+            long firstDelay = frames.isEmpty() ? LAST_FRAME_DELAY_MS : frames.get(0).time - startTime;
+            writer.startAnimation(getFrameCount(), (int) firstDelay);
+            writer.writeRows(keyframe, height);
+
+            for (int i = 0; i < frames.size(); i++) {
+                Frame frame = frames.get(i);
+                long delay = i + 1 < frames.size() ? frames.get(i + 1).time - frame.time : LAST_FRAME_DELAY_MS;
+                writer.writeFrame(frame.x, frame.y, frame.w, frame.h, frame.pixels, (int) delay);
+            }
+        }
+    }
+
+    private record Region(int x, int y, int w, int h) {}
+
+    private record Frame(long time, int x, int y, int w, int h, byte[] pixels) {}
+}
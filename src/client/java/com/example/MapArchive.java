@@ -0,0 +1,184 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Deflater;
+
+/**
+ * Append-only archive of unique map contents in a single file.
+ * Each record is keyed by the SHA-1 of the map's 16 KiB color array. Opening the archive
+ * reads only the record headers to rebuild the hash index, so a map that is already
+ * stored is recognized without touching the disk again. Not thread-safe; used from the
+ * harvester's archive thread only.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * int magic "STMA", int version
+ * repeated: int record length (bytes after this field), byte[20] SHA-1 of the colors,
+ *           long first seen (epoch ms), int map id, byte scale, boolean locked,
+ *           UTF dimension, UTF server, int data length, deflated colors
+ * </pre>
+ */
+public class MapArchive implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger("MapArchive");
+    private static final int MAGIC = 0x53544D41;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int HASH_SIZE = 20;
+
+    private final Path path;
+    private final RandomAccessFile file;
+    // First 8 bytes of each stored SHA-1
+    private final LongOpenHashSet hashes = new LongOpenHashSet();
+    private final MessageDigest digest;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final byte[] deflateBuffer = new byte[8192];
+
+    public MapArchive(Path path) throws IOException {
+        this.path = path;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-1 not available", e);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+
+        if (file.length() == 0) {
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+        } else {
+            loadIndex();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return hashes.size();
+    }
+
+    /**
+     * Stores the map unless identical colors are already archived.
+     * @return true if a new record was written
+     */
+    public boolean add(MapSnapshot map) throws IOException {
+        byte[] hash = digest.digest(map.colors());
+        long key = hashKey(hash);
+        if (hashes.contains(key)) {
+            return false;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(buffer);
+        record.write(hash);
+        record.writeLong(map.timestamp());
+        record.writeInt(map.mapId());
+        record.writeByte(map.scale());
+        record.writeBoolean(map.locked());
+        record.writeUTF(map.dimension());
+        record.writeUTF(map.server());
+
+        byte[] compressed = deflate(map.colors());
+        record.writeInt(compressed.length);
+        record.write(compressed);
+
+        // Recorded as stored only once the record is fully written; a failed append is cut
+        // off again so the next record does not follow a torn one
+        long offset = file.length();
+        try {
+            file.seek(offset);
+            file.writeInt(buffer.size());
+            file.write(buffer.toByteArray());
+        } catch (IOException e) {
+            file.setLength(offset);
+            throw e;
+        }
+        hashes.add(key);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        file.close();
+    }
+
+    /**
+     * Reads the hash of every record, skipping the payloads. A record cut off by a crash
+     * is truncated so later appends start at a record boundary.
+     */
+    private void loadIndex() throws IOException {
+        file.seek(0);
+        if (file.readInt() != MAGIC) {
+            throw new IOException(path + " is not a map archive");
+        }
+        file.readInt();
+
+        long length = file.length();
+        long offset = HEADER_SIZE;
+        byte[] hash = new byte[HASH_SIZE];
+        try {
+            while (offset < length) {
+                file.seek(offset);
+                int recordLength = file.readInt();
+                if (recordLength < HASH_SIZE || offset + 4 + recordLength > length) {
+                    break;
+                }
+                file.readFully(hash);
+                hashes.add(hashKey(hash));
+                offset += 4 + recordLength;
+            }
+        } catch (EOFException e) {
+            // Fall through and truncate the partial record
+        }
+
+        if (offset < length) {
+            LOGGER.warn("Truncating incomplete record at byte {} of {}", offset, path);
+            file.setLength(offset);
+        }
+        LOGGER.info("Map archive {} holds {} maps", path, hashes.size());
+    }
+
+    private byte[] deflate(byte[] data) {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            out.write(deflateBuffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static long hashKey(byte[] hash) {
+        long key = 0;
+        for (int i = 0; i < 8; i++) {
+            key = (key << 8) | (hash[i] & 0xFF);
+        }
+        return key;
+    }
+
+    /**
+     * Copy of a map's colors plus where and when it was seen.
+     */
+    public record MapSnapshot(int mapId, byte[] colors, byte scale, boolean locked,
+                              String dimension, String server, long timestamp) {}
+}
@@ -1,25 +1,36 @@
 package com.example;
 
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.network.chat.Component;
-import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.decoration.ItemFrame;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.MapItem;
 import net.minecraft.world.level.saveddata.maps.MapId;
 import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
 import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.EntityHitResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
 /**
  * Captures map art from item frames and stitches them into a single image.
@@ -35,6 +46,31 @@ public class MapCapture {
     // Minecraft map color palette (index -> ARGB color)
     private static final int[] MAP_COLORS = buildMapColorPalette();
 
+    // Map pixels are already palette indices, so images are stored as 8-bit indexed color
+    private static final IndexColorModel COLOR_MODEL =
+        new IndexColorModel(8, MAP_COLORS.length, MAP_COLORS, 0, true, -1, DataBuffer.TYPE_BYTE);
+
+    // Walls above this size (64x64 maps) are streamed to disk instead of stitched in memory
+    private static final long STREAMING_THRESHOLD_PIXELS = 64L * 64 * MAP_SIZE * MAP_SIZE;
+
+    // PNG encoding runs here so large walls do not freeze the client thread
+    private final ExecutorService encoder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ST-MapEncoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Animation recording: the wall being recorded and which grid cell each map id occupies
+    private static final long MAX_ANIMATION_BYTES = 256L << 20;
+    private MapAnimation animation;
+    private MapGrid animationGrid;
+    private final Int2IntOpenHashMap animationCells = new Int2IntOpenHashMap();
+    private final IntOpenHashSet changedMaps = new IntOpenHashSet();
+    private final byte[] animationTile = new byte[MAP_SIZE * MAP_SIZE];
+
+    // For each wall rotation, the source pixel index of every output pixel of a map
+    private static final int[][] ROTATION_TABLES = buildRotationTables();
+
     private MapCapture() {}
 
     public static MapCapture getInstance() {
@@ -50,6 +86,145 @@ public class MapCapture {
             return;
         }
 
+        // The wall under the crosshair, or every wall in range
+        List<MapGrid> walls = findWalls(mc, false);
+        for (int i = 0; i < walls.size(); i++) {
+            String suffix = walls.size() > 1 ? "_wall" + (i + 1) : "";
+            exportWall(walls.get(i), createOutputFile("mapart_", suffix));
+        }
+    }
+
+    private void exportWall(MapGrid grid, File outputFile) {
+        // Walls too big to hold as one image are rendered and written one row of maps at a time
+        long pixelCount = (long) grid.width() * grid.height() * MAP_SIZE * MAP_SIZE;
+        if (pixelCount > STREAMING_THRESHOLD_PIXELS) {
+            sendMessage("§e[Map Capture] Large wall (" + grid.width() + "x" + grid.height() + " maps), writing in strips...");
+            encoder.execute(() -> saveStreamed(grid, outputFile));
+            return;
+        }
+
+        BufferedImage result = stitchMaps(grid);
+
+        // Save the image; the stitched image is a copy, so encoding can run off-thread
+        encoder.execute(() -> saveImage(result, outputFile));
+    }
+
+    public void toggleAnimationRecording() {
+        if (animation != null) {
+            stopAnimationRecording();
+        } else {
+            startAnimationRecording();
+        }
+    }
+
+    private void startAnimationRecording() {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player == null || mc.level == null) {
+            return;
+        }
+
+        // The wall under the crosshair, or the largest one in range
+        List<MapGrid> walls = findWalls(mc, true);
+        if (walls.isEmpty()) {
+            return;
+        }
+        MapGrid grid = walls.get(0);
+
+        long pixelCount = (long) grid.width() * grid.height() * MAP_SIZE * MAP_SIZE;
+        if (pixelCount > STREAMING_THRESHOLD_PIXELS) {
+            sendMessage("§c[Map Animation] Wall is too large to record (" + grid.width() + "x" + grid.height() + " maps)");
+            return;
+        }
+
+        BufferedImage keyframe = stitchMaps(grid);
+        byte[] pixels = ((DataBufferByte) keyframe.getRaster().getDataBuffer()).getData();
+        animation = new MapAnimation(keyframe.getWidth(), keyframe.getHeight(), pixels, System.currentTimeMillis());
+        animationGrid = grid;
+        animationCells.clear();
+        changedMaps.clear();
+        for (int i = 0; i < grid.cells().length; i++) {
+            if (grid.cells()[i] != null) {
+                animationCells.put(grid.cells()[i].mapId.id(), i);
+            }
+        }
+
+        sendMessage("§a[Map Animation] Recording map updates, press again to stop and save.");
+        LOGGER.info("Map animation recording started on {}x{} maps", grid.width(), grid.height());
+    }
+
+    private void stopAnimationRecording() {
+        MapAnimation finished = animation;
+        animation = null;
+        animationGrid = null;
+        animationCells.clear();
+        changedMaps.clear();
+
+        File outputFile = createOutputFile("mapanim_", "");
+        encoder.execute(() -> {
+            try {
+                finished.export(outputFile.toPath(), MAP_COLORS);
+                sendMessage("§a[Map Animation] Saved " + finished.getFrameCount() + " frames: map_captures/" + outputFile.getName());
+                LOGGER.info("Saved map animation to: {}", outputFile.getAbsolutePath());
+            } catch (Exception e) {
+                sendMessage("§c[Map Animation] Failed to save: " + e.getMessage());
+                LOGGER.error("Failed to save map animation", e);
+            }
+        });
+    }
+
+    /**
+     * Called after the client applied a map data packet.
+     */
+    public void onMapData(MapId mapId, boolean hasColors) {
+        if (animation != null && hasColors && animationCells.containsKey(mapId.id())) {
+            changedMaps.add(mapId.id());
+        }
+    }
+
+    /**
+     * Turns the map updates received this tick into animation frames, one per changed map.
+     */
+    public void onTick() {
+        if (animation == null || changedMaps.isEmpty()) {
+            return;
+        }
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.level == null) {
+            return;
+        }
+
+        for (IntIterator it = changedMaps.iterator(); it.hasNext(); ) {
+            int id = it.nextInt();
+            MapItemSavedData data = mc.level.getMapData(new MapId(id));
+            if (data == null) continue;
+
+            int cell = animationCells.get(id);
+            int gridX = cell % animationGrid.width();
+            int gridY = cell / animationGrid.width();
+            renderMapToPixels(animationTile, MAP_SIZE, data.colors, 0, 0, animationGrid.rotation());
+            animation.applyPatch(gridX * MAP_SIZE, gridY * MAP_SIZE, MAP_SIZE, animationTile);
+        }
+        changedMaps.clear();
+        animation.commitFrame(System.currentTimeMillis());
+
+        if (animation.getStoredBytes() > MAX_ANIMATION_BYTES) {
+            sendMessage("§e[Map Animation] Recording reached " + (MAX_ANIMATION_BYTES >> 20) + " MB, stopping.");
+            stopAnimationRecording();
+        }
+    }
+
+    public void onDisconnect() {
+        if (animation != null) {
+            stopAnimationRecording();
+        }
+    }
+
+    /**
+     * Finds the map walls around the player and lays each out on its own grid, largest first.
+     * If the crosshair is on a map, only the wall holding that map is returned.
+     */
+    private List<MapGrid> findWalls(Minecraft mc, boolean largestOnly) {
         sendMessage("§e[Map Capture] Scanning for maps...");
 
         // Find all item frames with maps nearby
@@ -57,39 +232,92 @@ public class MapCapture {
 
         if (mapFrames.isEmpty()) {
             sendMessage("§c[Map Capture] No maps found nearby!");
-            return;
+            return List.of();
         }
 
-        sendMessage("§a[Map Capture] Found " + mapFrames.size() + " maps, stitching...");
-
-        // Group maps by their facing direction and determine grid
-        Map<Direction, List<MapFrame>> byDirection = groupByDirection(mapFrames);
+        List<List<MapFrame>> walls = findConnectedWalls(mapFrames);
+        walls.sort((a, b) -> Integer.compare(b.size(), a.size()));
 
-        // Process the largest group (most likely the map art wall)
-        Direction mainDirection = null;
-        int maxCount = 0;
-        for (Map.Entry<Direction, List<MapFrame>> entry : byDirection.entrySet()) {
-            if (entry.getValue().size() > maxCount) {
-                maxCount = entry.getValue().size();
-                mainDirection = entry.getKey();
+        ItemFrame targeted = mc.hitResult instanceof EntityHitResult hit && hit.getEntity() instanceof ItemFrame frame ? frame : null;
+        if (targeted != null) {
+            for (List<MapFrame> wall : walls) {
+                for (MapFrame map : wall) {
+                    if (map.frame == targeted) {
+                        sendMessage("§a[Map Capture] Found " + wall.size() + " maps on the targeted wall");
+                        return List.of(layoutGrid(wall, map.direction));
+                    }
+                }
             }
         }
 
-        if (mainDirection == null) {
-            sendMessage("§c[Map Capture] Could not determine map wall direction!");
-            return;
+        if (largestOnly) {
+            walls = walls.subList(0, 1);
         }
+        sendMessage("§a[Map Capture] Found " + mapFrames.size() + " maps, saving " + walls.size() + " wall(s)");
 
-        List<MapFrame> wallMaps = byDirection.get(mainDirection);
-        BufferedImage result = stitchMaps(wallMaps, mainDirection);
+        List<MapGrid> grids = new ArrayList<>();
+        for (List<MapFrame> wall : walls) {
+            grids.add(layoutGrid(wall, wall.get(0).direction));
+        }
+        return grids;
+    }
 
-        if (result == null) {
-            sendMessage("§c[Map Capture] Failed to stitch maps!");
-            return;
+    /**
+     * Splits frames into walls: maps that face the same way, lie in the same plane and touch
+     * edge to edge. Frames are indexed by (direction, plane) and then by packed grid
+     * coordinates, and each wall is collected with a flood fill, so this is linear in the
+     * number of frames.
+     */
+    private List<List<MapFrame>> findConnectedWalls(List<MapFrame> frames) {
+        Map<WallPlane, Long2ObjectOpenHashMap<MapFrame>> planes = new HashMap<>();
+        for (MapFrame frame : frames) {
+            int[] coords = getGridCoords(frame.pos, frame.direction);
+            planes.computeIfAbsent(new WallPlane(frame.direction, planeCoord(frame.pos, frame.direction)),
+                k -> new Long2ObjectOpenHashMap<>()).put(packGrid(coords[0], coords[1]), frame);
         }
 
-        // Save the image
-        saveImage(result);
+        List<List<MapFrame>> walls = new ArrayList<>();
+        LongArrayList stack = new LongArrayList();
+        for (Long2ObjectOpenHashMap<MapFrame> cells : planes.values()) {
+            // Visited cells are removed from the map, so each frame is taken exactly once
+            for (long start : cells.keySet().toLongArray()) {
+                if (!cells.containsKey(start)) continue;
+
+                List<MapFrame> wall = new ArrayList<>();
+                stack.add(start);
+                wall.add(cells.remove(start));
+                while (!stack.isEmpty()) {
+                    long cell = stack.popLong();
+                    int u = (int) (cell >> 32);
+                    int v = (int) cell;
+                    for (int i = 0; i < 4; i++) {
+                        long neighbour = packGrid(u + NEIGHBOUR_U[i], v + NEIGHBOUR_V[i]);
+                        MapFrame frame = cells.remove(neighbour);
+                        if (frame != null) {
+                            wall.add(frame);
+                            stack.add(neighbour);
+                        }
+                    }
+                }
+                walls.add(wall);
+            }
+        }
+        return walls;
+    }
+
+    private static final int[] NEIGHBOUR_U = {1, -1, 0, 0};
+    private static final int[] NEIGHBOUR_V = {0, 0, 1, -1};
+
+    private static long packGrid(int u, int v) {
+        return ((long) u << 32) | (v & 0xFFFFFFFFL);
+    }
+
+    private static int planeCoord(BlockPos pos, Direction facing) {
+        return switch (facing.getAxis()) {
+            case X -> pos.getX();
+            case Y -> pos.getY();
+            case Z -> pos.getZ();
+        };
     }
 
     private List<MapFrame> findMapFrames(Minecraft mc) {
@@ -99,15 +327,8 @@ public class MapCapture {
         double radius = 32.0;
         AABB searchBox = mc.player.getBoundingBox().inflate(radius);
 
-        for (Entity entity : mc.level.entitiesForRendering()) {
-            if (!(entity instanceof ItemFrame itemFrame)) {
-                continue;
-            }
-
-            if (!searchBox.contains(entity.position())) {
-                continue;
-            }
-
+        // Looked up through the level's entity sections instead of scanning every entity
+        for (ItemFrame itemFrame : mc.level.getEntitiesOfClass(ItemFrame.class, searchBox)) {
             ItemStack item = itemFrame.getItem();
             if (item.isEmpty() || !(item.getItem() instanceof MapItem)) {
                 continue;
@@ -135,15 +356,10 @@ public class MapCapture {
         return result;
     }
 
-    private Map<Direction, List<MapFrame>> groupByDirection(List<MapFrame> frames) {
-        Map<Direction, List<MapFrame>> result = new HashMap<>();
-        for (MapFrame frame : frames) {
-            result.computeIfAbsent(frame.direction, k -> new ArrayList<>()).add(frame);
-        }
-        return result;
-    }
-
-    private BufferedImage stitchMaps(List<MapFrame> maps, Direction facing) {
+    /**
+     * Places the maps on a grid (left to right, top to bottom from viewer's perspective).
+     */
+    private MapGrid layoutGrid(List<MapFrame> maps, Direction facing) {
         if (maps.isEmpty()) {
             return null;
         }
@@ -166,26 +382,75 @@ public class MapCapture {
 
         LOGGER.info("Map grid: {}x{} (from {},{} to {},{})", gridWidth, gridHeight, minX, minY, maxX, maxY);
 
+        MapFrame[] cells = new MapFrame[gridWidth * gridHeight];
+        for (MapFrame map : maps) {
+            int[] coords = getGridCoords(map.pos, facing);
+            cells[(coords[0] - minX) + (coords[1] - minY) * gridWidth] = map;
+        }
+        return new MapGrid(gridWidth, gridHeight, cells, ROTATION_TABLES[rotationIndex(facing)]);
+    }
+
+    private BufferedImage stitchMaps(MapGrid grid) {
+        long startTime = System.nanoTime();
+
         // Create the output image
         BufferedImage result = new BufferedImage(
-            gridWidth * MAP_SIZE,
-            gridHeight * MAP_SIZE,
-            BufferedImage.TYPE_INT_ARGB
+            grid.width() * MAP_SIZE,
+            grid.height() * MAP_SIZE,
+            BufferedImage.TYPE_BYTE_INDEXED,
+            COLOR_MODEL
         );
+        byte[] pixels = ((DataBufferByte) result.getRaster().getDataBuffer()).getData();
+        int imageWidth = result.getWidth();
 
-        // Place each map in the grid (left to right, top to bottom from viewer's perspective)
-        for (MapFrame map : maps) {
-            int[] coords = getGridCoords(map.pos, facing);
-            int gridX = coords[0] - minX;
-            int gridY = coords[1] - minY;
+        // Every map covers its own block of pixels, so they can be rendered in parallel
+        IntStream.range(0, grid.cells().length).parallel().forEach(i -> {
+            MapFrame map = grid.cells()[i];
+            if (map == null) return;
 
-            // Render map data to image
-            renderMapToImage(result, map.mapData, gridX * MAP_SIZE, gridY * MAP_SIZE, facing);
-        }
+            int gridX = i % grid.width();
+            int gridY = i / grid.width();
+            renderMapToPixels(pixels, imageWidth, map.mapData.colors, gridX * MAP_SIZE, gridY * MAP_SIZE, grid.rotation());
+        });
 
+        LOGGER.info("Rendered {}x{} maps in {} ms", grid.width(), grid.height(), (System.nanoTime() - startTime) / 1_000_000);
         return result;
     }
 
+    /**
+     * Renders one row of maps at a time into a reused strip and streams it to the PNG,
+     * so memory use does not depend on the wall size. Runs on the encoder thread and
+     * reads the live map data, so a map updated mid-export may mix old and new pixels.
+     */
+    private void saveStreamed(MapGrid grid, File outputFile) {
+        int imageWidth = grid.width() * MAP_SIZE;
+        int imageHeight = grid.height() * MAP_SIZE;
+        byte[] strip = new byte[imageWidth * MAP_SIZE];
+
+        long startTime = System.nanoTime();
+        try (IndexedPngWriter writer = new IndexedPngWriter(outputFile.toPath(), imageWidth, imageHeight, MAP_COLORS)) {
+            for (int gridY = 0; gridY < grid.height(); gridY++) {
+                Arrays.fill(strip, (byte) 0);
+                for (int gridX = 0; gridX < grid.width(); gridX++) {
+                    MapFrame map = grid.cells()[gridX + gridY * grid.width()];
+                    if (map != null) {
+                        renderMapToPixels(strip, imageWidth, map.mapData.colors, gridX * MAP_SIZE, 0, grid.rotation());
+                    }
+                }
+                writer.writeRows(strip, MAP_SIZE);
+            }
+        } catch (Exception e) {
+            sendMessage("§c[Map Capture] Failed to save: " + e.getMessage());
+            LOGGER.error("Failed to save map capture", e);
+            return;
+        }
+
+        LOGGER.info("Streamed {}x{} PNG in {} ms", imageWidth, imageHeight, (System.nanoTime() - startTime) / 1_000_000);
+        sendMessage("§a[Map Capture] Saved: map_captures/" + outputFile.getName());
+        sendMessage("§7Size: " + imageWidth + "x" + imageHeight + " pixels");
+        LOGGER.info("Saved map art to: {}", outputFile.getAbsolutePath());
+    }
+
     private int[] getGridCoords(BlockPos pos, Direction facing) {
         // Return [x, y] grid coordinates based on facing direction
         // The viewer looks AT the wall, so we need coords from their perspective
@@ -211,51 +476,46 @@ public class MapCapture {
         };
     }
 
-    private void renderMapToImage(BufferedImage image, MapItemSavedData mapData, int offsetX, int offsetY, Direction facing) {
-        byte[] colors = mapData.colors;
-
+    /**
+     * Writes one map into the image's backing array. Output rows are filled left to right,
+     * reading the source pixel through the rotation table. Map colors are palette indices,
+     * so they are copied as-is.
+     */
+    private void renderMapToPixels(byte[] pixels, int imageWidth, byte[] colors, int offsetX, int offsetY, int[] rotation) {
         for (int y = 0; y < MAP_SIZE; y++) {
+            int row = (offsetY + y) * imageWidth + offsetX;
+            int rowInMap = y * MAP_SIZE;
             for (int x = 0; x < MAP_SIZE; x++) {
-                int colorIndex = colors[x + y * MAP_SIZE] & 0xFF;
-                int argb = getMapColor(colorIndex);
-
-                // Map data is stored as viewed from above (north up)
-                // We need to rotate based on which wall the map is on
-                int px, py;
-
-                switch (facing) {
-                    case SOUTH -> {
-                        // Rotated 180 degrees
-                        px = MAP_SIZE - 1 - x;
-                        py = MAP_SIZE - 1 - y;
-                    }
-                    case EAST -> {
-                        // Rotated 90 degrees clockwise
-                        px = MAP_SIZE - 1 - y;
-                        py = x;
-                    }
-                    case WEST -> {
-                        // Rotated 90 degrees counter-clockwise
-                        px = y;
-                        py = MAP_SIZE - 1 - x;
-                    }
-                    default -> {
-                        // NORTH, UP, DOWN - no rotation needed
-                        px = x;
-                        py = y;
-                    }
-                }
-
-                image.setRGB(offsetX + px, offsetY + py, argb);
+                pixels[row + x] = colors[rotation[rowInMap + x]];
             }
         }
     }
 
-    private int getMapColor(int colorIndex) {
-        if (colorIndex >= 0 && colorIndex < MAP_COLORS.length) {
-            return MAP_COLORS[colorIndex];
+    private static int rotationIndex(Direction facing) {
+        // Map data is stored as viewed from above (north up)
+        // We need to rotate based on which wall the map is on
+        return switch (facing) {
+            case EAST -> 1;   // Rotated 90 degrees clockwise
+            case SOUTH -> 2;  // Rotated 180 degrees
+            case WEST -> 3;   // Rotated 90 degrees counter-clockwise
+            default -> 0;     // NORTH, UP, DOWN - no rotation needed
+        };
+    }
+
+    private static int[][] buildRotationTables() {
+        int[][] tables = new int[4][MAP_SIZE * MAP_SIZE];
+        int last = MAP_SIZE - 1;
+
+        for (int y = 0; y < MAP_SIZE; y++) {
+            for (int x = 0; x < MAP_SIZE; x++) {
+                int source = x + y * MAP_SIZE;
+                tables[0][x + y * MAP_SIZE] = source;
+                tables[1][(last - y) + x * MAP_SIZE] = source;
+                tables[2][(last - x) + (last - y) * MAP_SIZE] = source;
+                tables[3][y + (last - x) * MAP_SIZE] = source;
+            }
         }
-        return 0x00000000; // Transparent for invalid indices
+        return tables;
     }
 
     private static int[] buildMapColorPalette() {
@@ -352,17 +612,11 @@ public class MapCapture {
         return palette;
     }
 
-    private void saveImage(BufferedImage image) {
+    private void saveImage(BufferedImage image, File outputFile) {
         try {
-            File captureDir = new File("map_captures");
-            if (!captureDir.exists()) {
-                captureDir.mkdirs();
-            }
-
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-            File outputFile = new File(captureDir, "mapart_" + timestamp + ".png");
-
+            long startTime = System.nanoTime();
             ImageIO.write(image, "PNG", outputFile);
+            LOGGER.info("Encoded {}x{} PNG in {} ms", image.getWidth(), image.getHeight(), (System.nanoTime() - startTime) / 1_000_000);
 
             sendMessage("§a[Map Capture] Saved: map_captures/" + outputFile.getName());
             sendMessage("§7Size: " + image.getWidth() + "x" + image.getHeight() + " pixels");
@@ -374,6 +628,16 @@ public class MapCapture {
         }
     }
 
+    private File createOutputFile(String prefix, String suffix) {
+        File captureDir = new File("map_captures");
+        if (!captureDir.exists()) {
+            captureDir.mkdirs();
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        return new File(captureDir, prefix + timestamp + suffix + ".png");
+    }
+
     private void sendMessage(String message) {
         Minecraft mc = Minecraft.getInstance();
         if (mc.player != null) {
@@ -383,6 +647,13 @@ public class MapCapture {
         }
     }
 
+    private record WallPlane(Direction direction, int plane) {}
+
+    /**
+     * Maps laid out on the wall, row-major; empty cells are null.
+     */
+    private record MapGrid(int width, int height, MapFrame[] cells, int[] rotation) {}
+
     private record MapFrame(
         ItemFrame frame,
         Direction direction,
@@ -0,0 +1,194 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.level.saveddata.maps.MapId;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records every map the client receives, from item frames, held maps or containers,
+ * into one archive deduplicated by content.
+ * Map data packets only mark the map id; once a second the changed maps are copied and
+ * handed to the archive thread, which hashes and stores them. Partial updates to the
+ * same map within that second therefore produce one archived version.
+ */
+public class MapHarvester {
+    private static final Logger LOGGER = LoggerFactory.getLogger("MapHarvester");
+    private static MapHarvester instance;
+
+    private static final Path ARCHIVE_FILE = Path.of("map_archive", "maps.stma");
+    private static final int FLUSH_INTERVAL_TICKS = 20;
+
+    private final ExecutorService archiveThread = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ST-MapArchive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean harvesting = false;
+    // Bumped on every start, so a late failure of an earlier session does not stop a newer one
+    private int session = 0;
+    private final IntOpenHashSet dirtyMaps = new IntOpenHashSet();
+    private int ticksSinceFlush = 0;
+
+    // Only touched on the archive thread, apart from the counters
+    private MapArchive archive;
+    private final AtomicInteger newMaps = new AtomicInteger();
+    private final AtomicInteger duplicateMaps = new AtomicInteger();
+
+    private MapHarvester() {}
+
+    public static MapHarvester getInstance() {
+        if (instance == null) {
+            instance = new MapHarvester();
+        }
+        return instance;
+    }
+
+    public void toggleHarvesting() {
+        if (harvesting) {
+            stopHarvesting();
+        } else {
+            startHarvesting();
+        }
+    }
+
+    public boolean isHarvesting() {
+        return harvesting;
+    }
+
+    private void startHarvesting() {
+        harvesting = true;
+        int startedSession = ++session;
+        newMaps.set(0);
+        duplicateMaps.set(0);
+        archiveThread.execute(() -> {
+            try {
+                archive = new MapArchive(ARCHIVE_FILE);
+                sendMessage("§a[Map Harvest] Recording all received maps (" + archive.size() + " already archived)");
+            } catch (IOException e) {
+                LOGGER.error("Failed to open map archive", e);
+                sendMessage("§c[Map Harvest] Failed to open archive: " + e.getMessage());
+                // Without an archive there is nothing to harvest into; stop copying maps
+                Minecraft.getInstance().execute(() -> {
+                    if (harvesting && session == startedSession) {
+                        harvesting = false;
+                        dirtyMaps.clear();
+                    }
+                });
+            }
+        });
+
+        // Maps loaded before harvesting started are picked up from the level
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.level instanceof ClientLevelAccessor accessor) {
+            for (MapId mapId : accessor.invokeGetAllMapData().keySet()) {
+                dirtyMaps.add(mapId.id());
+            }
+        }
+        LOGGER.info("Map harvesting started");
+    }
+
+    private void stopHarvesting() {
+        flush();
+        harvesting = false;
+        archiveThread.execute(() -> {
+            if (archive == null) return;
+            try {
+                archive.close();
+            } catch (IOException e) {
+                LOGGER.error("Failed to close map archive", e);
+            }
+            sendMessage("§a[Map Harvest] Stopped. " + newMaps.get() + " new maps, "
+                + duplicateMaps.get() + " already archived. Total: " + archive.size());
+            sendMessage("§7Archive: " + archive.getPath());
+            archive = null;
+        });
+        LOGGER.info("Map harvesting stopped");
+    }
+
+    /**
+     * Called after the client applied a map data packet.
+     */
+    public void onMapData(MapId mapId, boolean hasColors) {
+        if (harvesting && hasColors) {
+            dirtyMaps.add(mapId.id());
+        }
+    }
+
+    public void onTick() {
+        if (!harvesting) return;
+        if (++ticksSinceFlush >= FLUSH_INTERVAL_TICKS) {
+            flush();
+        }
+    }
+
+    public void onDisconnect() {
+        if (harvesting) {
+            stopHarvesting();
+        }
+    }
+
+    private void flush() {
+        ticksSinceFlush = 0;
+        Minecraft mc = Minecraft.getInstance();
+        if (dirtyMaps.isEmpty() || mc.level == null) {
+            return;
+        }
+
+        String server = mc.getCurrentServer() != null ? mc.getCurrentServer().ip : "singleplayer";
+        long now = System.currentTimeMillis();
+
+        for (IntIterator it = dirtyMaps.iterator(); it.hasNext(); ) {
+            int id = it.nextInt();
+            MapItemSavedData data = mc.level.getMapData(new MapId(id));
+            if (data == null) continue;
+
+            // The client keeps writing into the colors array, so the archive gets a copy
+            MapArchive.MapSnapshot snapshot = new MapArchive.MapSnapshot(id, data.colors.clone(), data.scale,
+                data.locked, data.dimension.identifier().toString(), server, now);
+            archiveThread.execute(() -> store(snapshot));
+        }
+        dirtyMaps.clear();
+    }
+
+    private void store(MapArchive.MapSnapshot snapshot) {
+        if (archive == null) return;
+        try {
+            if (archive.add(snapshot)) {
+                newMaps.incrementAndGet();
+            } else {
+                duplicateMaps.incrementAndGet();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to archive map {}", snapshot.mapId(), e);
+        }
+    }
+
+    private void sendMessage(String message) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player != null) {
+            mc.execute(() -> {
+                mc.player.displayClientMessage(Component.literal(message), false);
+            });
+        }
+    }
+
+    /**
+     * Interface for reading the client level's map cache via mixin
+     */
+    public interface ClientLevelAccessor {
+        Map<MapId, MapItemSavedData> invokeGetAllMapData();
+    }
+}
@@ -20,14 +20,21 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.world.item.enchantment.ItemEnchantments;
 import net.minecraft.world.item.component.ResolvableProfile;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.mojang.authlib.properties.Property;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Base64;
 
 /**
  * Captures open menus/screens and exports them with full details.
@@ -37,6 +44,21 @@ public class MenuCapture {
     private static final Logger LOGGER = LoggerFactory.getLogger("MenuCapture");
     private static MenuCapture instance;
 
+    // Auto capture: every container that opens is recorded once per distinct content
+    private static final Path AUTO_CAPTURE_DIR = Path.of("menu_captures");
+    // Servers often fill a menu with a content packet followed by slot updates; wait for it to settle
+    private static final int SETTLE_TICKS = 2;
+    // Menus with live timers never settle, so capture at the latest this long after the first update
+    private static final int MAX_SETTLE_TICKS = 20;
+    private BackgroundWriter autoCaptureWriter;
+    private ExportTables autoCaptureTables;
+    // Content hash -> menus captured with that hash, compared in full so a collision is never a duplicate
+    private final Long2ObjectOpenHashMap<List<CapturedMenu>> capturedMenus = new Long2ObjectOpenHashMap<>();
+    private int capturedCount = 0;
+    private int duplicateCount = 0;
+    private int ticksUntilCapture = -1;
+    private int ticksUntilForcedCapture = -1;
+
     private MenuCapture() {}
 
     public static MenuCapture getInstance() {
@@ -72,6 +94,188 @@ public class MenuCapture {
         sendChatMessage("§a[Menu Capture] Copied to clipboard!");
     }
 
+    public void toggleAutoCapture() {
+        if (autoCaptureWriter != null) {
+            stopAutoCapture();
+        } else {
+            startAutoCapture();
+        }
+    }
+
+    private void startAutoCapture() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        try {
+            autoCaptureWriter = new BackgroundWriter(AUTO_CAPTURE_DIR.resolve("menus_" + timestamp + ".jsonl"), "ST-MenuCapture");
+        } catch (IOException e) {
+            sendChatMessage("§c[Menu Capture] Failed to create file: " + e.getMessage());
+            LOGGER.error("Failed to create menu capture file", e);
+            return;
+        }
+
+        autoCaptureTables = new ExportTables(autoCaptureWriter::writeLine);
+        capturedMenus.clear();
+        capturedCount = 0;
+        duplicateCount = 0;
+        ticksUntilCapture = -1;
+        sendChatMessage("§a[Menu Capture] Auto capture on, every opened container is saved.");
+        LOGGER.info("Menu auto capture started");
+    }
+
+    private void stopAutoCapture() {
+        BackgroundWriter writer = autoCaptureWriter;
+        autoCaptureWriter = null;
+        int count = capturedCount;
+        int duplicates = duplicateCount;
+        String tableSizes = autoCaptureTables.getItemCount() + " distinct items, "
+            + autoCaptureTables.getStringCount() + " strings";
+        autoCaptureTables = null;
+        capturedMenus.clear();
+        writer.close().whenComplete((ignored, error) -> {
+            if (error != null) {
+                sendChatMessage("§c[Menu Capture] Auto capture off. Writing " + writer.getPath() + " failed: " + error.getMessage());
+                return;
+            }
+            sendChatMessage("§a[Menu Capture] Auto capture off. Saved " + count + " menus ("
+                + duplicates + " duplicates skipped, " + tableSizes + ")");
+            sendChatMessage("§7Saved to: " + writer.getPath());
+        });
+        LOGGER.info("Menu auto capture stopped");
+    }
+
+    /**
+     * Called after the client applied a container content or slot packet.
+     */
+    public void onContainerUpdate(int containerId) {
+        if (autoCaptureWriter == null) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player != null && containerId != 0 && containerId == mc.player.containerMenu.containerId) {
+            if (ticksUntilCapture < 0) {
+                ticksUntilForcedCapture = MAX_SETTLE_TICKS;
+            }
+            ticksUntilCapture = SETTLE_TICKS;
+        }
+    }
+
+    public void onTick() {
+        if (autoCaptureWriter == null || ticksUntilCapture < 0) return;
+        ticksUntilForcedCapture--;
+        if (ticksUntilCapture-- > 0 && ticksUntilForcedCapture > 0) return;
+        ticksUntilCapture = -1;
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.screen instanceof AbstractContainerScreen<?> screen
+                && !(mc.screen instanceof InventoryScreen)
+                && !(mc.screen instanceof CreativeModeInventoryScreen)) {
+            autoCapture(screen);
+        }
+    }
+
+    public void onDisconnect() {
+        if (autoCaptureWriter != null) {
+            stopAutoCapture();
+        }
+    }
+
+    private void autoCapture(AbstractContainerScreen<?> screen) {
+        Minecraft mc = Minecraft.getInstance();
+        String title = componentToColorString(screen.getTitle());
+        List<Slot> containerSlots = getContainerSlots(screen.getMenu());
+
+        // Compare title plus slot contents; the JSON is only built for menus not seen before
+        CapturedMenu menu = CapturedMenu.of(title, containerSlots);
+        List<CapturedMenu> sameHash = capturedMenus.computeIfAbsent(menu.hash(), key -> new ArrayList<>(1));
+        for (CapturedMenu captured : sameHash) {
+            if (captured.sameContent(menu)) {
+                duplicateCount++;
+                return;
+            }
+        }
+        sameHash.add(menu.copy());
+
+        // Table lines for new strings and items are queued ahead of the record that uses them
+        JsonArray slots = new JsonArray();
+        for (Slot slot : containerSlots) {
+            JsonArray stack = autoCaptureTables.stack(slot.getItem());
+            if (stack == null) continue;
+            JsonArray entry = new JsonArray();
+            entry.add(slot.index);
+            entry.addAll(stack);
+            slots.add(entry);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "menu");
+        json.addProperty("t", System.currentTimeMillis());
+        json.addProperty("server", mc.getCurrentServer() != null ? mc.getCurrentServer().ip : "singleplayer");
+        json.addProperty("screen", screen.getClass().getSimpleName());
+        json.addProperty("title", autoCaptureTables.string(title));
+        json.addProperty("size", containerSlots.size());
+        json.add("slots", slots);
+
+        autoCaptureWriter.writeLine(json.toString());
+        capturedCount++;
+        mc.gui.setOverlayMessage(Component.literal("§a[Menu Capture] Saved menu #" + capturedCount), false);
+    }
+
+    /**
+     * Title and non-empty container slots of a captured menu.
+     */
+    private record CapturedMenu(long hash, String title, int[] slotIndices, ItemStack[] stacks) {
+        static CapturedMenu of(String title, List<Slot> slots) {
+            long hash = title.hashCode();
+            int count = 0;
+            int[] slotIndices = new int[slots.size()];
+            ItemStack[] stacks = new ItemStack[slots.size()];
+            for (Slot slot : slots) {
+                ItemStack stack = slot.getItem();
+                if (stack.isEmpty()) continue;
+                hash = hash * 0x9E3779B97F4A7C15L + slot.index;
+                hash = hash * 0x9E3779B97F4A7C15L + stack.getCount();
+                hash = hash * 0x9E3779B97F4A7C15L + ItemStack.hashItemAndComponents(stack);
+                slotIndices[count] = slot.index;
+                stacks[count] = stack;
+                count++;
+            }
+            return new CapturedMenu(hash, title, Arrays.copyOf(slotIndices, count), Arrays.copyOf(stacks, count));
+        }
+
+        /**
+         * Detached from the live slots, which the client may change in place.
+         */
+        CapturedMenu copy() {
+            ItemStack[] copies = new ItemStack[stacks.length];
+            for (int i = 0; i < stacks.length; i++) {
+                copies[i] = stacks[i].copy();
+            }
+            return new CapturedMenu(hash, title, slotIndices, copies);
+        }
+
+        boolean sameContent(CapturedMenu other) {
+            if (hash != other.hash || !title.equals(other.title) || !Arrays.equals(slotIndices, other.slotIndices)) {
+                return false;
+            }
+            for (int i = 0; i < stacks.length; i++) {
+                if (!ItemStack.matches(stacks[i], other.stacks[i])) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Slots of the container itself, without the player inventory.
+     */
+    List<Slot> getContainerSlots(AbstractContainerMenu menu) {
+        Minecraft mc = Minecraft.getInstance();
+        List<Slot> result = new ArrayList<>();
+        for (Slot slot : menu.slots) {
+            if (mc.player == null || slot.container != mc.player.getInventory()) {
+                result.add(slot);
+            }
+        }
+        return result;
+    }
+
     private String captureScreen(Screen screen) {
         StringBuilder sb = new StringBuilder();
 
@@ -105,7 +309,7 @@ public class MenuCapture {
      * Converts a Component to a string preserving Minecraft color codes (§).
      * Properly handles nested components with their individual styles.
      */
-    private String componentToColorString(Component component) {
+    String componentToColorString(Component component) {
         if (component == null) return "";
 
         StringBuilder result = new StringBuilder();
@@ -323,11 +527,9 @@ public class MenuCapture {
                         sb.append("\n      Texture: ").append(textureValue);
 
                         // Decode the base64 texture to show the URL
-                        try {
-                            String decoded = new String(Base64.getDecoder().decode(textureValue));
-                            sb.append("\n      Texture Data: ").append(decoded);
-                        } catch (Exception e) {
-                            // Couldn't decode, just show the raw value
+                        SkinTextures.Texture texture = SkinTextures.getInstance().decode(textureValue);
+                        if (texture != null) {
+                            sb.append("\n      Texture Data: ").append(texture.json());
                         }
 
                         // Include signature if present
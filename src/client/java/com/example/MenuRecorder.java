@@ -0,0 +1,215 @@
+package com.example;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
+import net.minecraft.client.gui.screens.inventory.CreativeModeInventoryScreen;
+import net.minecraft.client.gui.screens.inventory.InventoryScreen;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.ItemStack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records live-updating menus (timers, rotating items, shop stock) as a time series of slot deltas.
+ * Slot packets only mark the open menu as changed; once per tick the container slots are compared
+ * against the last recorded state and just the slots that differ are written. Items and titles go
+ * through {@link ExportTables}, so an item cycling back into a slot costs a few bytes instead of a
+ * full dump.
+ *
+ * File format, one JSON object per line, plus the table lines of {@link ExportTables}:
+ * <pre>
+ * {"type":"menu","menu":0,"t":epochMs,"server":..,"screen":..,"title":stringRef,"size":54}
+ * {"type":"delta","menu":0,"t":msSinceMenuOpened,"slots":[[slot,itemRef,count],[slot,-1],...]}
+ * </pre>
+ * The first delta of a menu starts from an empty container, so replaying deltas in order up to a
+ * time gives the exact contents at that time.
+ */
+public class MenuRecorder {
+    private static final Logger LOGGER = LoggerFactory.getLogger("MenuRecorder");
+    private static MenuRecorder instance;
+
+    private static final Path RECORDING_DIR = Path.of("menu_recordings");
+    private static final int EMPTY = ExportTables.EMPTY;
+
+    private BackgroundWriter writer;
+    private ExportTables tables;
+
+    // Menu currently being recorded
+    private int containerId = -1;
+    private int menuIndex = -1;
+    private long menuStart;
+    private int[] slotIndices = new int[0];
+    private int[] stateRefs = new int[0];
+    private int[] stateCounts = new int[0];
+    private boolean changed = false;
+
+    private int deltaCount = 0;
+    private int slotChanges = 0;
+
+    private MenuRecorder() {}
+
+    public static MenuRecorder getInstance() {
+        if (instance == null) {
+            instance = new MenuRecorder();
+        }
+        return instance;
+    }
+
+    public void toggleRecording() {
+        if (writer != null) {
+            stopRecording();
+        } else {
+            startRecording();
+        }
+    }
+
+    public boolean isRecording() {
+        return writer != null;
+    }
+
+    private void startRecording() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        try {
+            writer = new BackgroundWriter(RECORDING_DIR.resolve("menu_" + timestamp + ".jsonl"), "ST-MenuRecorder");
+        } catch (IOException e) {
+            sendMessage("§c[Menu Recording] Failed to create file: " + e.getMessage());
+            LOGGER.error("Failed to create menu recording file", e);
+            return;
+        }
+
+        tables = new ExportTables(writer::writeLine);
+        containerId = -1;
+        menuIndex = -1;
+        deltaCount = 0;
+        slotChanges = 0;
+        changed = true;
+        sendMessage("§a[Menu Recording] Recording slot changes of opened menus...");
+        LOGGER.info("Menu recording started");
+    }
+
+    private void stopRecording() {
+        BackgroundWriter closing = writer;
+        writer = null;
+        String summary = "§a[Menu Recording] Stopped. " + (menuIndex + 1) + " menus, " + deltaCount
+            + " deltas, " + slotChanges + " slot changes, " + tables.getItemCount() + " distinct items, "
+            + tables.getStringCount() + " strings";
+        tables = null;
+        closing.close().whenComplete((ignored, error) -> {
+            if (error != null) {
+                sendMessage("§c[Menu Recording] Stopped. Writing " + closing.getPath() + " failed: " + error.getMessage());
+                return;
+            }
+            sendMessage(summary);
+            sendMessage("§7Saved to: " + closing.getPath());
+        });
+        LOGGER.info("Menu recording stopped");
+    }
+
+    /**
+     * Called after the client applied a container content or slot packet.
+     */
+    public void onContainerUpdate(int containerId) {
+        if (writer != null && containerId != 0) {
+            changed = true;
+        }
+    }
+
+    public void onTick() {
+        if (writer == null || !changed) return;
+        changed = false;
+
+        Minecraft mc = Minecraft.getInstance();
+        if (!(mc.screen instanceof AbstractContainerScreen<?> screen)
+                || mc.screen instanceof InventoryScreen
+                || mc.screen instanceof CreativeModeInventoryScreen) {
+            return;
+        }
+
+        List<Slot> slots = MenuCapture.getInstance().getContainerSlots(screen.getMenu());
+        if (screen.getMenu().containerId != containerId) {
+            startMenu(mc, screen, slots);
+        }
+        recordDelta(slots);
+    }
+
+    public void onDisconnect() {
+        if (writer != null) {
+            stopRecording();
+        }
+    }
+
+    private void startMenu(Minecraft mc, AbstractContainerScreen<?> screen, List<Slot> slots) {
+        containerId = screen.getMenu().containerId;
+        menuIndex++;
+        menuStart = System.currentTimeMillis();
+        slotIndices = new int[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            slotIndices[i] = slots.get(i).index;
+        }
+        stateRefs = new int[slots.size()];
+        stateCounts = new int[slots.size()];
+        Arrays.fill(stateRefs, EMPTY);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "menu");
+        json.addProperty("menu", menuIndex);
+        json.addProperty("t", menuStart);
+        json.addProperty("server", mc.getCurrentServer() != null ? mc.getCurrentServer().ip : "singleplayer");
+        json.addProperty("screen", screen.getClass().getSimpleName());
+        json.addProperty("title", tables.string(MenuCapture.getInstance().componentToColorString(screen.getTitle())));
+        json.addProperty("size", slots.size());
+        writer.writeLine(json.toString());
+    }
+
+    private void recordDelta(List<Slot> slots) {
+        JsonArray delta = null;
+        for (int i = 0; i < slots.size() && i < stateRefs.length; i++) {
+            ItemStack stack = slots.get(i).getItem();
+            int ref = tables.item(stack);
+            int count = stack.getCount();
+            if (ref == stateRefs[i] && (ref == EMPTY || count == stateCounts[i])) continue;
+            stateRefs[i] = ref;
+            stateCounts[i] = count;
+
+            if (delta == null) {
+                delta = new JsonArray();
+            }
+            JsonArray change = new JsonArray();
+            change.add(slotIndices[i]);
+            change.add(ref);
+            if (ref != EMPTY) {
+                change.add(count);
+            }
+            delta.add(change);
+            slotChanges++;
+        }
+        if (delta == null) return;
+
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "delta");
+        json.addProperty("menu", menuIndex);
+        json.addProperty("t", System.currentTimeMillis() - menuStart);
+        json.add("slots", delta);
+        writer.writeLine(json.toString());
+        deltaCount++;
+    }
+
+    private void sendMessage(String message) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player != null) {
+            mc.execute(() -> {
+                mc.player.displayClientMessage(Component.literal(message), false);
+            });
+        }
+    }
+}
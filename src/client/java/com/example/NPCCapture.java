@@ -1,6 +1,10 @@
 package com.example;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.properties.Property;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.multiplayer.PlayerInfo;
@@ -9,6 +13,7 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.TextColor;
+import net.minecraft.util.Mth;
 import net.minecraft.network.chat.contents.PlainTextContents;
 import net.minecraft.network.chat.contents.TranslatableContents;
 import net.minecraft.world.entity.Entity;
@@ -25,8 +30,11 @@ import net.minecraft.world.phys.Vec3;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
 
@@ -37,6 +45,24 @@ public class NPCCapture {
     private static final Logger LOGGER = LoggerFactory.getLogger("NPCCapture");
     private static NPCCapture instance;
 
+    // Structured copy of every capture this session; references point at the ExportTables lines in the same file
+    private static final Path EXPORT_DIR = Path.of("npc_captures");
+    private static final EquipmentSlot[] EXPORTED_SLOTS = {
+        EquipmentSlot.MAINHAND, EquipmentSlot.OFFHAND, EquipmentSlot.HEAD,
+        EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+    // Hologram armor stands are searched this far around and above an NPC
+    private static final double HOLOGRAM_RADIUS = 3.0;
+    private static final double HOLOGRAM_MAX_HEIGHT = 5.0;
+    // One block wider than the search, so a stand whose box reaches into the search from the
+    // next cell over is still in one of the 3x3 cells around the NPC
+    private static final double HOLOGRAM_CELL_SIZE = HOLOGRAM_RADIUS + 1.0;
+    // Stands this much further out than an NPC can still be its holograms (diagonal of the search box)
+    private static final double HOLOGRAM_REACH = HOLOGRAM_CELL_SIZE + HOLOGRAM_MAX_HEIGHT;
+    private static final double AREA_RADIUS = 64.0;
+    private BackgroundWriter exportWriter;
+    private ExportTables exportTables;
+
     private NPCCapture() {}
 
     public static NPCCapture getInstance() {
@@ -67,6 +93,221 @@ public class NPCCapture {
         String output = captureNPCData(mc, level, targetEntity);
         copyToClipboard(output);
         sendChatMessage("§a[NPC Capture] Copied NPC data to clipboard!");
+        exportStructured(mc, level, targetEntity);
+    }
+
+    public void onDisconnect() {
+        if (exportWriter != null) {
+            exportWriter.close();
+            exportWriter = null;
+            exportTables = null;
+        }
+    }
+
+    /**
+     * Appends the NPC to this session's JSONL export.
+     */
+    private void exportStructured(Minecraft mc, ClientLevel level, Entity entity) {
+        if (exportWriter != null && exportWriter.isFailed()) {
+            sendChatMessage("§c[NPC Capture] Writing " + exportWriter.getPath() + " failed, starting a new file");
+            exportWriter = null;
+            exportTables = null;
+        }
+        if (exportWriter == null) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+            try {
+                exportWriter = new BackgroundWriter(EXPORT_DIR.resolve("npcs_" + timestamp + ".jsonl"), "ST-NPCExport");
+            } catch (IOException e) {
+                LOGGER.error("Failed to create NPC export file", e);
+                return;
+            }
+            exportTables = new ExportTables(exportWriter::writeLine);
+        }
+
+        exportWriter.writeLine(npcToJson(mc, entity, findHolograms(level, entity), exportTables).toString());
+    }
+
+    /**
+     * Captures every NPC within the radius into one structured file.
+     * Entities are walked once: named armor stands are bucketed into a grid of hologram-search
+     * sized cells, so each NPC only looks at the 3x3 cells around it instead of querying the level.
+     */
+    public void captureArea() {
+        Minecraft mc = Minecraft.getInstance();
+        LocalPlayer player = mc.player;
+        ClientLevel level = mc.level;
+
+        if (player == null || level == null) {
+            sendChatMessage("§c[NPC Capture] Not in a world");
+            return;
+        }
+
+        double radiusSq = AREA_RADIUS * AREA_RADIUS;
+        double hologramRadiusSq = (AREA_RADIUS + HOLOGRAM_REACH) * (AREA_RADIUS + HOLOGRAM_REACH);
+        List<Entity> npcs = new ArrayList<>();
+        Long2ObjectOpenHashMap<List<ArmorStand>> hologramGrid = new Long2ObjectOpenHashMap<>();
+
+        for (Entity entity : level.entitiesForRendering()) {
+            if (entity == player) continue;
+            double distanceSq = entity.distanceToSqr(player);
+
+            // Holograms of NPCs at the edge of the area float just outside it
+            if (entity instanceof ArmorStand armorStand) {
+                if (armorStand.hasCustomName() && distanceSq <= hologramRadiusSq) {
+                    long cell = gridCell(Mth.floor(armorStand.getX() / HOLOGRAM_CELL_SIZE),
+                        Mth.floor(armorStand.getZ() / HOLOGRAM_CELL_SIZE));
+                    List<ArmorStand> bucket = hologramGrid.get(cell);
+                    if (bucket == null) {
+                        bucket = new ArrayList<>();
+                        hologramGrid.put(cell, bucket);
+                    }
+                    bucket.add(armorStand);
+                }
+            } else if (distanceSq <= radiusSq && isNpc(entity)) {
+                npcs.add(entity);
+            }
+        }
+
+        if (npcs.isEmpty()) {
+            sendChatMessage("§e[NPC Capture] No NPCs within " + (int) AREA_RADIUS + " blocks");
+            return;
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        BackgroundWriter writer;
+        try {
+            writer = new BackgroundWriter(EXPORT_DIR.resolve("npc_area_" + timestamp + ".jsonl"), "ST-NPCAreaExport");
+        } catch (IOException e) {
+            LOGGER.error("Failed to create NPC area export file", e);
+            sendChatMessage("§c[NPC Capture] Failed to create file: " + e.getMessage());
+            return;
+        }
+        ExportTables tables = new ExportTables(writer::writeLine);
+
+        int hologramCount = 0;
+        for (Entity npc : npcs) {
+            List<ArmorStand> holograms = nearbyHolograms(hologramGrid, npc);
+            hologramCount += holograms.size();
+            writer.writeLine(npcToJson(mc, npc, holograms, tables).toString());
+        }
+
+        int count = npcs.size();
+        int lines = hologramCount;
+        writer.close().whenComplete((ignored, error) -> {
+            if (error != null) {
+                sendChatMessage("§c[NPC Capture] Writing " + writer.getPath() + " failed: " + error.getMessage());
+                return;
+            }
+            sendChatMessage("§a[NPC Capture] Captured " + count + " NPCs with " + lines + " hologram lines");
+            sendChatMessage("§7Saved to: " + writer.getPath());
+        });
+    }
+
+    /**
+     * Holograms above the NPC from the pre-built grid. Uses the same box intersection test as
+     * {@link #findHolograms}, so both find the same stands.
+     */
+    private List<ArmorStand> nearbyHolograms(Long2ObjectOpenHashMap<List<ArmorStand>> grid, Entity npc) {
+        List<ArmorStand> holograms = new ArrayList<>();
+        AABB searchBox = hologramSearchBox(npc);
+        int cellX = Mth.floor(npc.getX() / HOLOGRAM_CELL_SIZE);
+        int cellZ = Mth.floor(npc.getZ() / HOLOGRAM_CELL_SIZE);
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                List<ArmorStand> bucket = grid.get(gridCell(cellX + dx, cellZ + dz));
+                if (bucket == null) continue;
+                for (ArmorStand armorStand : bucket) {
+                    if (armorStand.getBoundingBox().intersects(searchBox)) {
+                        holograms.add(armorStand);
+                    }
+                }
+            }
+        }
+
+        holograms.sort(Comparator.comparingDouble((ArmorStand a) -> a.getY()).reversed());
+        return holograms;
+    }
+
+    /**
+     * Players other than the local one, and named mobs. Named armor stands are holograms, not NPCs.
+     */
+    static boolean isNpc(Entity entity) {
+        if (entity instanceof ArmorStand || entity instanceof LocalPlayer) return false;
+        return entity instanceof Player || (entity instanceof LivingEntity && entity.hasCustomName());
+    }
+
+    private static long gridCell(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Structured NPC record. Names, hologram lines, textures and equipment go through the
+     * string and item tables, so repeated NPCs stay small.
+     */
+    JsonObject npcToJson(Minecraft mc, Entity entity, List<ArmorStand> holograms, ExportTables tables) {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "npc");
+        json.addProperty("t", System.currentTimeMillis());
+        json.addProperty("server", mc.getCurrentServer() != null ? mc.getCurrentServer().ip : "singleplayer");
+        json.addProperty("entityType", tables.string(BuiltInRegistries.ENTITY_TYPE.getKey(entity.getType()).toString()));
+        json.addProperty("uuid", entity.getUUID().toString());
+        if (entity.hasCustomName()) {
+            json.addProperty("name", tables.string(componentToColorString(entity.getCustomName())));
+        }
+
+        JsonArray pos = new JsonArray();
+        pos.add(entity.getX());
+        pos.add(entity.getY());
+        pos.add(entity.getZ());
+        pos.add(entity.getYRot());
+        pos.add(entity.getXRot());
+        json.add("pos", pos);
+
+        if (entity instanceof Player player) {
+            // Tab entries of NPCs are often removed right after spawning; the entity keeps its profile
+            PlayerInfo playerInfo = mc.getConnection() != null ? mc.getConnection().getPlayerInfo(entity.getUUID()) : null;
+            GameProfile profile = playerInfo != null ? playerInfo.getProfile() : player.getGameProfile();
+            if (profile != null) {
+                json.addProperty("profileName", tables.string(profile.name()));
+                var properties = profile.properties();
+                if (properties != null && properties.containsKey("textures")) {
+                    for (Property property : properties.get("textures")) {
+                        json.addProperty("texture", tables.string(property.value()));
+                        SkinTextures.Texture texture = SkinTextures.getInstance().decode(property.value());
+                        if (texture != null) {
+                            SkinExporter.getInstance().export(texture);
+                        }
+                        if (property.signature() != null) {
+                            json.addProperty("signature", tables.string(property.signature()));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (entity instanceof LivingEntity livingEntity) {
+            JsonObject equipment = new JsonObject();
+            for (EquipmentSlot slot : EXPORTED_SLOTS) {
+                JsonArray stack = tables.stack(livingEntity.getItemBySlot(slot));
+                if (stack != null) {
+                    equipment.add(slot.getName(), stack);
+                }
+            }
+            json.add("equipment", equipment);
+        }
+
+        JsonArray hologramLines = new JsonArray();
+        for (ArmorStand hologram : holograms) {
+            JsonArray line = new JsonArray();
+            line.add(tables.string(componentToColorString(hologram.getCustomName())));
+            line.add(hologram.getX());
+            line.add(hologram.getY());
+            line.add(hologram.getZ());
+            hologramLines.add(line);
+        }
+        json.add("holograms", hologramLines);
+        return json;
     }
 
     private Entity getTargetedEntity(Minecraft mc, LocalPlayer player, double reach) {
@@ -159,22 +400,15 @@ public class NPCCapture {
                         sb.append("Texture (Base64): ").append(textureValue).append("\n");
 
                         // Decode to get the actual URL
-                        try {
-                            String decoded = new String(Base64.getDecoder().decode(textureValue));
-                            sb.append("Texture Data: ").append(decoded).append("\n");
-
-                            // Extract just the URL for convenience
-                            if (decoded.contains("\"url\"")) {
-                                int urlStart = decoded.indexOf("\"url\"");
-                                int urlValueStart = decoded.indexOf("\"", urlStart + 6) + 1;
-                                int urlValueEnd = decoded.indexOf("\"", urlValueStart);
-                                if (urlValueEnd > urlValueStart) {
-                                    String skinUrl = decoded.substring(urlValueStart, urlValueEnd);
-                                    sb.append("Skin URL: ").append(skinUrl).append("\n");
-                                }
+                        SkinTextures.Texture texture = SkinTextures.getInstance().decode(textureValue);
+                        if (texture != null) {
+                            sb.append("Texture Data: ").append(texture.json()).append("\n");
+                            if (texture.skinUrl() != null) {
+                                sb.append("Skin URL: ").append(texture.skinUrl()).append("\n");
+                            }
+                            if (texture.capeUrl() != null) {
+                                sb.append("Cape URL: ").append(texture.capeUrl()).append("\n");
                             }
-                        } catch (Exception e) {
-                            // Couldn't decode
                         }
 
                         if (property.signature() != null) {
@@ -263,38 +497,13 @@ public class NPCCapture {
     }
 
     private void captureHolograms(ClientLevel level, Entity npcEntity, StringBuilder sb) {
-        // Search for armor stands above the NPC (holograms are usually invisible armor stands)
-        double searchRadius = 3.0;
-        double maxHeightAbove = 5.0;
-
-        AABB searchBox = new AABB(
-            npcEntity.getX() - searchRadius,
-            npcEntity.getY(),
-            npcEntity.getZ() - searchRadius,
-            npcEntity.getX() + searchRadius,
-            npcEntity.getY() + maxHeightAbove,
-            npcEntity.getZ() + searchRadius
-        );
-
-        List<ArmorStand> holograms = new ArrayList<>();
-
-        for (Entity entity : level.getEntities(npcEntity, searchBox, e -> e instanceof ArmorStand)) {
-            ArmorStand armorStand = (ArmorStand) entity;
-
-            // Holograms are usually invisible, have custom names, and are markers
-            if (armorStand.hasCustomName()) {
-                holograms.add(armorStand);
-            }
-        }
+        List<ArmorStand> holograms = findHolograms(level, npcEntity);
 
         if (holograms.isEmpty()) {
             sb.append("(No holograms found)\n");
             return;
         }
 
-        // Sort by Y position (top to bottom)
-        holograms.sort(Comparator.comparingDouble((ArmorStand a) -> a.getY()).reversed());
-
         sb.append("Found ").append(holograms.size()).append(" hologram line(s):\n");
 
         for (int i = 0; i < holograms.size(); i++) {
@@ -311,6 +520,40 @@ public class NPCCapture {
         }
     }
 
+    /**
+     * Named armor stands above the NPC, top line first.
+     */
+    List<ArmorStand> findHolograms(ClientLevel level, Entity npcEntity) {
+        // Search for armor stands above the NPC (holograms are usually invisible armor stands)
+        AABB searchBox = hologramSearchBox(npcEntity);
+
+        List<ArmorStand> holograms = new ArrayList<>();
+
+        for (Entity entity : level.getEntities(npcEntity, searchBox, e -> e instanceof ArmorStand)) {
+            ArmorStand armorStand = (ArmorStand) entity;
+
+            // Holograms are usually invisible, have custom names, and are markers
+            if (armorStand.hasCustomName()) {
+                holograms.add(armorStand);
+            }
+        }
+
+        // Sort by Y position (top to bottom)
+        holograms.sort(Comparator.comparingDouble((ArmorStand a) -> a.getY()).reversed());
+        return holograms;
+    }
+
+    private static AABB hologramSearchBox(Entity npcEntity) {
+        return new AABB(
+            npcEntity.getX() - HOLOGRAM_RADIUS,
+            npcEntity.getY(),
+            npcEntity.getZ() - HOLOGRAM_RADIUS,
+            npcEntity.getX() + HOLOGRAM_RADIUS,
+            npcEntity.getY() + HOLOGRAM_MAX_HEIGHT,
+            npcEntity.getZ() + HOLOGRAM_RADIUS
+        );
+    }
+
     /**
      * Converts a Component to a string preserving Minecraft color codes (§).
      */
@@ -0,0 +1,184 @@
+package com.example;
+
+import com.mojang.authlib.properties.Property;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.decoration.ArmorStand;
+import net.minecraft.world.entity.player.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.UUID;
+
+/**
+ * Records NPCs as they come into tracking range, for documenting a whole server by walking it.
+ * Entity load events only queue the entity; it is looked at once, a second later, when its name,
+ * equipment and hologram stands have arrived. Each NPC is written once per UUID and skin texture,
+ * so ticks without newly loaded entities cost nothing.
+ */
+public class NPCDiscovery {
+    private static final Logger LOGGER = LoggerFactory.getLogger("NPCDiscovery");
+    private static NPCDiscovery instance;
+
+    private static final Path EXPORT_DIR = Path.of("npc_captures");
+    // Name and equipment data follow the spawn packet, holograms often spawn a little later
+    private static final int SETTLE_TICKS = 20;
+
+    private boolean discovering = false;
+    private BackgroundWriter writer;
+    private ExportTables tables;
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final LongOpenHashSet seen = new LongOpenHashSet();
+    private long tick = 0;
+    private int discoveredCount = 0;
+
+    private NPCDiscovery() {}
+
+    public static NPCDiscovery getInstance() {
+        if (instance == null) {
+            instance = new NPCDiscovery();
+        }
+        return instance;
+    }
+
+    public void toggleDiscovery() {
+        if (discovering) {
+            stopDiscovery();
+        } else {
+            startDiscovery();
+        }
+    }
+
+    public boolean isDiscovering() {
+        return discovering;
+    }
+
+    private void startDiscovery() {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.level == null) {
+            sendMessage("§c[NPC Discovery] Not in a world");
+            return;
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        try {
+            writer = new BackgroundWriter(EXPORT_DIR.resolve("npc_discovery_" + timestamp + ".jsonl"), "ST-NPCDiscovery");
+        } catch (IOException e) {
+            sendMessage("§c[NPC Discovery] Failed to create file: " + e.getMessage());
+            LOGGER.error("Failed to create NPC discovery file", e);
+            return;
+        }
+
+        tables = new ExportTables(writer::writeLine);
+        pending.clear();
+        seen.clear();
+        discoveredCount = 0;
+        discovering = true;
+
+        // Entities already in range are picked up like newly loaded ones
+        for (Entity entity : mc.level.entitiesForRendering()) {
+            onEntityLoad(entity, mc.level);
+        }
+        sendMessage("§a[NPC Discovery] Recording NPCs as they come into range...");
+        LOGGER.info("NPC discovery started");
+    }
+
+    private void stopDiscovery() {
+        discovering = false;
+        pending.clear();
+        tables = null;
+        BackgroundWriter closing = writer;
+        writer = null;
+        int count = discoveredCount;
+        closing.close().whenComplete((ignored, error) -> {
+            if (error != null) {
+                sendMessage("§c[NPC Discovery] Stopped. Writing " + closing.getPath() + " failed: " + error.getMessage());
+                return;
+            }
+            sendMessage("§a[NPC Discovery] Stopped. Recorded " + count + " NPCs");
+            sendMessage("§7Saved to: " + closing.getPath());
+        });
+        LOGGER.info("NPC discovery stopped");
+    }
+
+    /**
+     * Called when the client level adds an entity.
+     */
+    public void onEntityLoad(Entity entity, ClientLevel level) {
+        if (!discovering) return;
+        // Names may not be set yet, so only rule out what can never be an NPC
+        if (entity instanceof LivingEntity && !(entity instanceof ArmorStand) && !(entity instanceof LocalPlayer)) {
+            pending.add(new Pending(entity, tick + SETTLE_TICKS));
+        }
+    }
+
+    public void onTick() {
+        if (!discovering) return;
+        tick++;
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.level == null) return;
+
+        // All entries wait the same number of ticks, so the queue is ordered by due tick
+        while (!pending.isEmpty() && pending.peek().dueTick() <= tick) {
+            Entity entity = pending.poll().entity();
+            if (entity.isRemoved() || entity.level() != mc.level || !NPCCapture.isNpc(entity)) continue;
+            record(mc, mc.level, entity);
+        }
+    }
+
+    public void onDisconnect() {
+        if (discovering) {
+            stopDiscovery();
+        }
+    }
+
+    private void record(Minecraft mc, ClientLevel level, Entity entity) {
+        String texture = entity instanceof Player player ? getSkinTexture(player) : null;
+        UUID uuid = entity.getUUID();
+        long key = (uuid.getMostSignificantBits() * 31 + uuid.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L
+            + (texture != null ? texture.hashCode() : 0);
+        if (!seen.add(key)) return;
+
+        NPCCapture capture = NPCCapture.getInstance();
+        writer.writeLine(capture.npcToJson(mc, entity, capture.findHolograms(level, entity), tables).toString());
+        discoveredCount++;
+        if (discoveredCount % 25 == 0) {
+            sendMessage("§a[NPC Discovery] " + discoveredCount + " NPCs recorded so far...");
+        }
+    }
+
+    /**
+     * The entity's own profile, since NPC tab entries are often removed right after spawning.
+     */
+    private String getSkinTexture(Player player) {
+        var properties = player.getGameProfile().properties();
+        if (properties != null && properties.containsKey("textures")) {
+            for (Property property : properties.get("textures")) {
+                return property.value();
+            }
+        }
+        return null;
+    }
+
+    private void sendMessage(String message) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player != null) {
+            mc.execute(() -> {
+                mc.player.displayClientMessage(Component.literal(message), false);
+            });
+        }
+    }
+
+    private record Pending(Entity entity, long dueTick) {}
+}
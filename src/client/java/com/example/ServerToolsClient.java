@@ -1,13 +1,16 @@
 package com.example;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientEntityEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.rendering.v1.hud.HudElementRegistry;
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.KeyMapping.Category;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.gui.screens.inventory.InventoryScreen;
 import net.minecraft.client.gui.screens.inventory.CreativeModeInventoryScreen;
+import net.minecraft.resources.Identifier;
 import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +27,15 @@ public class ServerToolsClient implements ClientModInitializer {
     private static KeyMapping npcCaptureKey;
     private static KeyMapping headCaptureKey;
     private static KeyMapping armorStandCaptureKey;
+    private static KeyMapping coverageMapKey;
+    private static KeyMapping soundChatKey;
+    private static KeyMapping soundHeatmapKey;
+    private static KeyMapping mapHarvestKey;
+    private static KeyMapping mapAnimationKey;
+    private static KeyMapping menuAutoCaptureKey;
+    private static KeyMapping menuRecordingKey;
+    private static KeyMapping npcAreaCaptureKey;
+    private static KeyMapping npcDiscoveryKey;
 
     private static boolean jKeyWasPressed = false;
 
@@ -79,6 +91,66 @@ public class ServerToolsClient implements ClientModInitializer {
                 Category.MISC
         ));
 
+        coverageMapKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.coverage_map",
+                GLFW.GLFW_KEY_M,
+                Category.MISC
+        ));
+
+        // Unbound by default, sound capture output goes to the HUD
+        soundChatKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.sound_chat",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        soundHeatmapKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.sound_heatmap",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        mapHarvestKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.map_harvest",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        mapAnimationKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.map_animation",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        menuAutoCaptureKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.menu_auto_capture",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        menuRecordingKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.menu_recording",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        npcAreaCaptureKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.npc_area_capture",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        npcDiscoveryKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+                "key.servertools.npc_discovery",
+                GLFW.GLFW_KEY_UNKNOWN,
+                Category.MISC
+        ));
+
+        HudElementRegistry.addLast(CoverageMap.TEXTURE_ID, CoverageMap.getInstance()::renderHud);
+        HudElementRegistry.addLast(Identifier.fromNamespaceAndPath(MOD_ID, "sound_capture"), SoundCapture.getInstance()::renderHud);
+
+        ClientEntityEvents.ENTITY_LOAD.register(NPCDiscovery.getInstance()::onEntityLoad);
+
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             while (toggleDownloadKey.consumeClick()) {
                 ChunkDownloader.getInstance().toggleDownload();
@@ -112,6 +184,42 @@ public class ServerToolsClient implements ClientModInitializer {
                 ArmorStandCapture.getInstance().toggleCapture();
             }
 
+            while (coverageMapKey.consumeClick()) {
+                client.setScreen(new CoverageMapScreen());
+            }
+
+            while (soundChatKey.consumeClick()) {
+                SoundCapture.getInstance().toggleChatOutput();
+            }
+
+            while (soundHeatmapKey.consumeClick()) {
+                SoundCapture.getInstance().toggleHeatmap();
+            }
+
+            while (mapHarvestKey.consumeClick()) {
+                MapHarvester.getInstance().toggleHarvesting();
+            }
+
+            while (mapAnimationKey.consumeClick()) {
+                MapCapture.getInstance().toggleAnimationRecording();
+            }
+
+            while (menuAutoCaptureKey.consumeClick()) {
+                MenuCapture.getInstance().toggleAutoCapture();
+            }
+
+            while (menuRecordingKey.consumeClick()) {
+                MenuRecorder.getInstance().toggleRecording();
+            }
+
+            while (npcAreaCaptureKey.consumeClick()) {
+                NPCCapture.getInstance().captureArea();
+            }
+
+            while (npcDiscoveryKey.consumeClick()) {
+                NPCDiscovery.getInstance().toggleDiscovery();
+            }
+
             // Check for J key while a CONTAINER screen is open (not inventory)
             if (client.screen instanceof AbstractContainerScreen<?>
                     && !(client.screen instanceof InventoryScreen)
@@ -126,17 +234,29 @@ public class ServerToolsClient implements ClientModInitializer {
                 jKeyWasPressed = false;
             }
 
-            // Check for sounds each tick
+            // Refresh the sound capture HUD panel
             SoundCapture.getInstance().onTick();
 
+            // Archive maps received since the last flush
+            MapHarvester.getInstance().onTick();
+
+            // Record map wall updates as animation frames
+            MapCapture.getInstance().onTick();
+
+            // Save containers whose contents have settled
+            MenuCapture.getInstance().onTick();
+
+            // Record slot changes of the open menu
+            MenuRecorder.getInstance().onTick();
+
+            // Record NPCs that came into range
+            NPCDiscovery.getInstance().onTick();
+
             // Check for chat copy (CMD/CTRL+C while hovering chat)
             ChatCopy.getInstance().onTick();
 
-            // Check for armor stands with player heads
-            HeadCapture.getInstance().onTick();
-
-            // Check for armor stands with target texture
-            ArmorStandCapture.getInstance().onTick();
+            // One armor stand scan for head capture and fairy soul capture
+            ArmorStandScanner.getInstance().onTick();
         });
     }
 }
@@ -0,0 +1,164 @@
+package com.example;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonObject;
+import net.minecraft.client.Minecraft;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Copies skin and cape PNGs of captured NPCs out of the client's local skin cache, so no
+ * separate download step is needed. The client thread only checks whether a texture was
+ * already requested; reading, hashing and copying happen on the export thread. Files are
+ * deduplicated by SHA-1 of their contents and listed in {@code npc_skins/index.jsonl}
+ * with the URL they came from.
+ */
+public class SkinExporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("SkinExporter");
+    private static SkinExporter instance;
+
+    private static final Path EXPORT_DIR = Path.of("npc_skins");
+    private static final Path INDEX_FILE = EXPORT_DIR.resolve("index.jsonl");
+
+    private final ExecutorService exportThread = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ST-SkinExport");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Path cacheDirectory;
+    // Client thread: texture URLs already handed to the export thread
+    private final Set<String> requestedUrls = new HashSet<>();
+
+    // Export thread only: content hash -> exported file name
+    private Map<String, String> exportedFiles;
+    private MessageDigest digest;
+
+    private SkinExporter() {}
+
+    public static SkinExporter getInstance() {
+        if (instance == null) {
+            instance = new SkinExporter();
+        }
+        return instance;
+    }
+
+    /**
+     * Set from the skin manager's constructor; the cache lives under the launcher's asset directory.
+     */
+    public void setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Exports the skin and cape of a decoded texture property, if the client has them cached.
+     */
+    public void export(SkinTextures.Texture texture) {
+        if (texture.skinUrl() != null) {
+            request(texture.skinUrl(), "skin");
+        }
+        if (texture.capeUrl() != null) {
+            request(texture.capeUrl(), "cape");
+        }
+    }
+
+    private void request(String url, String kind) {
+        if (!requestedUrls.add(url)) return;
+        exportThread.execute(() -> {
+            if (!exportFromCache(url, kind)) {
+                // Not downloaded yet (the NPC was never rendered); allow a later capture to retry
+                Minecraft.getInstance().execute(() -> requestedUrls.remove(url));
+            }
+        });
+    }
+
+    /**
+     * @return false if the texture is not in the cache yet
+     */
+    private boolean exportFromCache(String url, String kind) {
+        Path source = cachedFile(url);
+        if (source == null || !Files.isRegularFile(source)) {
+            return false;
+        }
+
+        try {
+            loadExportedFiles();
+            byte[] data = Files.readAllBytes(source);
+            String contentHash = HexFormat.of().formatHex(digest.digest(data));
+
+            String fileName = exportedFiles.get(contentHash);
+            if (fileName == null) {
+                fileName = kind + "_" + contentHash + ".png";
+                Files.write(EXPORT_DIR.resolve(fileName), data);
+                exportedFiles.put(contentHash, fileName);
+            }
+
+            JsonObject json = new JsonObject();
+            json.addProperty("t", System.currentTimeMillis());
+            json.addProperty("kind", kind);
+            json.addProperty("url", url);
+            json.addProperty("file", fileName);
+            Files.writeString(INDEX_FILE, json + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOGGER.error("Failed to export {} from {}", kind, source, e);
+        }
+        return true;
+    }
+
+    /**
+     * Same layout as the client's skin cache: sha1 of the texture hash, in a folder named by
+     * its first two characters. The texture hash is the last path segment of the URL.
+     */
+    private Path cachedFile(String url) {
+        Path root = cacheDirectory;
+        if (root == null) return null;
+
+        String textureHash = url.substring(url.lastIndexOf('/') + 1);
+        int extension = textureHash.lastIndexOf('.');
+        if (extension >= 0) {
+            textureHash = textureHash.substring(0, extension);
+        }
+        @SuppressWarnings("deprecation")
+        String name = Hashing.sha1().hashUnencodedChars(textureHash).toString();
+        return root.resolve(name.length() > 2 ? name.substring(0, 2) : "xx").resolve(name);
+    }
+
+    /**
+     * Hashes the files of earlier sessions once, so the same skin is not exported twice.
+     */
+    private void loadExportedFiles() throws IOException {
+        if (exportedFiles != null) return;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-1 not available", e);
+        }
+
+        exportedFiles = new HashMap<>();
+        Files.createDirectories(EXPORT_DIR);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(EXPORT_DIR, "*.png")) {
+            for (Path file : files) {
+                String contentHash = HexFormat.of().formatHex(digest.digest(Files.readAllBytes(file)));
+                exportedFiles.put(contentHash, file.getFileName().toString());
+            }
+        }
+        LOGGER.info("{} skins already exported", exportedFiles.size());
+    }
+}
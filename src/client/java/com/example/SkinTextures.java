@@ -0,0 +1,119 @@
+package com.example;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.authlib.properties.Property;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.component.ResolvableProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decodes Base64 "textures" profile properties into skin/cape URLs, with an LRU cache keyed by
+ * the raw property value. Heads and NPCs reuse the same few values over and over (and the
+ * armor stand scan looks at every stand every tick), so after the first decode a texture
+ * costs one hash lookup. Undecodable values are cached too, so they are not retried.
+ */
+public class SkinTextures {
+    private static final Logger LOGGER = LoggerFactory.getLogger("SkinTextures");
+    private static SkinTextures instance;
+
+    private static final int MAX_ENTRIES = 2048;
+    private static final Texture INVALID = new Texture(null, null, null, false);
+
+    private final Map<String, Texture> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Texture> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private SkinTextures() {}
+
+    public static SkinTextures getInstance() {
+        if (instance == null) {
+            instance = new SkinTextures();
+        }
+        return instance;
+    }
+
+    /**
+     * Decodes a textures property value.
+     * @return the parsed texture, or null if the value is not valid Base64 JSON
+     */
+    public synchronized Texture decode(String value) {
+        Texture texture = cache.get(value);
+        if (texture == null) {
+            texture = parse(value);
+            cache.put(value, texture);
+        }
+        return texture == INVALID ? null : texture;
+    }
+
+    /**
+     * The first decodable texture of a profile, or null.
+     */
+    public Texture fromProfile(ResolvableProfile profile) {
+        var properties = profile.partialProfile().properties();
+        if (properties == null || !properties.containsKey("textures")) {
+            return null;
+        }
+        for (Property property : properties.get("textures")) {
+            Texture texture = decode(property.value());
+            if (texture != null) {
+                return texture;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The texture of a player head item, or null if the item has none.
+     */
+    public Texture fromStack(ItemStack stack) {
+        if (stack.isEmpty()) return null;
+        ResolvableProfile profile = stack.get(DataComponents.PROFILE);
+        return profile != null ? fromProfile(profile) : null;
+    }
+
+    private static Texture parse(String value) {
+        try {
+            String json = new String(Base64.getDecoder().decode(value.trim()), StandardCharsets.UTF_8);
+            JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+            JsonObject textures = root.has("textures") ? root.getAsJsonObject("textures") : new JsonObject();
+
+            String skinUrl = null;
+            boolean slim = false;
+            if (textures.has("SKIN")) {
+                JsonObject skin = textures.getAsJsonObject("SKIN");
+                skinUrl = skin.has("url") ? skin.get("url").getAsString() : null;
+                slim = skin.has("metadata") && skin.getAsJsonObject("metadata").has("model")
+                    && "slim".equals(skin.getAsJsonObject("metadata").get("model").getAsString());
+            }
+            String capeUrl = null;
+            if (textures.has("CAPE")) {
+                JsonObject cape = textures.getAsJsonObject("CAPE");
+                capeUrl = cape.has("url") ? cape.get("url").getAsString() : null;
+            }
+            return new Texture(json, skinUrl, capeUrl, slim);
+        } catch (Exception e) {
+            LOGGER.debug("Could not decode texture property", e);
+            return INVALID;
+        }
+    }
+
+    /**
+     * A decoded textures property.
+     * @param json the decoded JSON text
+     * @param skinUrl skin URL, or null if the property has no skin
+     * @param capeUrl cape URL, or null if the property has no cape
+     * @param slim true for the slim (Alex) arm model
+     */
+    public record Texture(String json, String skinUrl, String capeUrl, boolean slim) {}
+}
@@ -1,23 +1,30 @@
 package com.example;
 
-import com.example.mixin.client.SoundEngineAccessor;
-import com.example.mixin.client.SoundManagerAccessor;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.client.DeltaTracker;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.resources.sounds.SoundInstance;
-import net.minecraft.client.sounds.SoundEngine;
-import net.minecraft.client.sounds.SoundManager;
+import net.minecraft.client.sounds.SoundEventListener;
+import net.minecraft.client.sounds.WeighedSoundEvents;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.Identifier;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SoundCapture {
@@ -27,9 +34,38 @@ public class SoundCapture {
     private final AtomicBoolean isCapturing = new AtomicBoolean(false);
     private final AtomicBoolean isCapturingSequence = new AtomicBoolean(false);
 
-    private final List<GameSoundEvent> currentSequence = new CopyOnWriteArrayList<>();
-    private final Set<Integer> processedSoundHashes = new HashSet<>();
-    private long lastCleanupTime = 0;
+    private static final Path SEQUENCE_DIR = Path.of("sound_sequences");
+
+    private final SoundSequence currentSequence = new SoundSequence();
+
+    // Events are streamed to a JSONL file as they happen, so a crash keeps the recording.
+    // The human-readable report is generated from that file when the sequence stops.
+    private BackgroundWriter sequenceWriter;
+    private final GapStats gapStats = new GapStats();
+    private final SoundPatternDetector patternDetector = new SoundPatternDetector();
+    private static final int MAX_REPORTED_PATTERNS = 20;
+    // Sequence events are attributed to the nearest entity, looked up in a grid rebuilt at most once per tick
+    private final SoundEntityGrid entityGrid = new SoundEntityGrid();
+
+    // Sounds are summarized on a HUD panel. Per-sound chat lines are optional and rate-limited.
+    private static final int CHAT_LINES_PER_SECOND = 4;
+    private final SoundHud hud = new SoundHud();
+    private boolean chatOutput = false;
+    private long chatWindowStart = 0;
+    private int chatLinesInWindow = 0;
+    private int suppressedChatLines = 0;
+
+    // Registered with the SoundManager only while a capture is running, so idle cost is zero.
+    // The engine calls it exactly once per sound, when the sound starts playing.
+    private final SoundEventListener soundListener = this::onPlaySound;
+    private boolean listenerRegistered = false;
+
+    // Spatial heatmap of sound positions, null while not recording
+    private static final Path HEATMAP_DIR = Path.of("sound_heatmaps");
+    private SoundHeatmap heatmap;
+
+    // Include/exclude rules from config/servertools/sound_filters.json, reloaded when the file changes
+    private final SoundFilter soundFilter = new SoundFilter();
 
     private SoundCapture() {}
 
@@ -58,7 +94,8 @@ public class SoundCapture {
 
     private void startCapture() {
         if (isCapturing.compareAndSet(false, true)) {
-            processedSoundHashes.clear();
+            hud.clear();
+            updateListener();
             sendChatMessage("§a[Sound Capture] Started listening for game sounds...");
             sendChatMessage("§7Press K again to stop.");
             LOGGER.info("Sound capture started");
@@ -67,6 +104,7 @@ public class SoundCapture {
 
     private void stopCapture() {
         if (isCapturing.compareAndSet(true, false)) {
+            updateListener();
             sendChatMessage("§c[Sound Capture] Stopped listening for game sounds.");
             LOGGER.info("Sound capture stopped");
         }
@@ -74,8 +112,23 @@ public class SoundCapture {
 
     private void startSequenceCapture() {
         if (isCapturingSequence.compareAndSet(false, true)) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+            try {
+                sequenceWriter = new BackgroundWriter(SEQUENCE_DIR.resolve("sequence_" + timestamp + ".jsonl"), "ST-SoundSequence");
+            } catch (IOException e) {
+                isCapturingSequence.set(false);
+                sendChatMessage("§c[Sequence Capture] Failed to create file: " + e.getMessage());
+                LOGGER.error("Failed to create sequence file", e);
+                return;
+            }
+
             currentSequence.clear();
-            processedSoundHashes.clear();
+            gapStats.reset();
+            patternDetector.reset();
+            if (!isCapturing.get()) {
+                hud.clear();
+            }
+            updateListener();
             sendChatMessage("§a[Sequence Capture] Started recording sound sequence...");
             sendChatMessage("§7Press N again to stop and save the sequence.");
             LOGGER.info("Sequence capture started");
@@ -84,120 +137,255 @@ public class SoundCapture {
 
     private void stopSequenceCapture() {
         if (isCapturingSequence.compareAndSet(true, false)) {
+            updateListener();
+            entityGrid.clear();
+
+            BackgroundWriter writer = sequenceWriter;
+            sequenceWriter = null;
             if (!currentSequence.isEmpty()) {
-                saveSequenceToFile();
-                sendChatMessage("§a[Sequence Capture] Saved " + currentSequence.size() + " sounds to file!");
+                int count = currentSequence.size();
+                GapStats stats = gapStats.copy();
+                patternDetector.finish();
+                List<String> patterns = patternDetector.describeMotifs(
+                    id -> getSoundId(currentSequence.soundName(id)), MAX_REPORTED_PATTERNS);
+                writer.close().whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        sendChatMessage("§c[Sequence Capture] Writing " + writer.getPath() + " failed: " + error.getMessage());
+                    } else {
+                        saveSequenceReport(writer.getPath(), stats, patterns, count);
+                    }
+                });
             } else {
+                writer.close().whenComplete((ignored, error) -> deleteQuietly(writer.getPath()));
                 sendChatMessage("§e[Sequence Capture] No sounds detected in sequence.");
             }
             LOGGER.info("Sequence capture stopped");
         }
     }
 
+    public void toggleHeatmap() {
+        if (heatmap != null) {
+            stopHeatmap();
+        } else {
+            startHeatmap();
+        }
+    }
+
+    private void startHeatmap() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        try {
+            heatmap = new SoundHeatmap(HEATMAP_DIR.resolve("heatmap_" + timestamp + ".bin"));
+        } catch (IOException e) {
+            sendChatMessage("§c[Sound Heatmap] Failed to create file: " + e.getMessage());
+            LOGGER.error("Failed to create heatmap file", e);
+            return;
+        }
+
+        if (!isCapturing.get() && !isCapturingSequence.get()) {
+            hud.clear();
+        }
+        updateListener();
+        sendChatMessage("§a[Sound Heatmap] Started recording sound positions...");
+        LOGGER.info("Sound heatmap started");
+    }
+
+    private void stopHeatmap() {
+        SoundHeatmap finished = heatmap;
+        heatmap = null;
+        updateListener();
+
+        long events = finished.getTotalEvents();
+        finished.close().thenRun(() -> {
+            sendChatMessage("§a[Sound Heatmap] Saved " + events + " sounds in "
+                + finished.getWrittenEntries() + " cell entries to: §f" + finished.getPath());
+            LOGGER.info("Sound heatmap saved to {}", finished.getPath());
+        });
+    }
+
+    public void toggleChatOutput() {
+        chatOutput = !chatOutput;
+        sendChatMessage(chatOutput
+            ? "§a[Sound Capture] Chat output enabled (max " + CHAT_LINES_PER_SECOND + " lines/s)"
+            : "§e[Sound Capture] Chat output disabled, sounds are shown on the HUD");
+    }
+
     /**
-     * Called each client tick to check for new sounds
+     * Called each client tick to refresh the HUD panel and flush the chat rate limit.
      */
     public void onTick() {
-        if (!isCapturing.get() && !isCapturingSequence.get()) {
+        if (!isActive()) {
             return;
         }
 
-        try {
-            Minecraft mc = Minecraft.getInstance();
-            if (mc == null || mc.getSoundManager() == null) {
-                return;
+        soundFilter.reloadIfChanged();
+
+        entityGrid.invalidate();
+
+        long now = System.currentTimeMillis();
+        if (now - chatWindowStart >= 1000) {
+            if (suppressedChatLines > 0) {
+                sendChatMessage("§7[Sound] (+" + suppressedChatLines + " more)");
             }
+            chatWindowStart = now;
+            chatLinesInWindow = 0;
+            suppressedChatLines = 0;
+        }
 
-            // Clean up old hashes periodically
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - lastCleanupTime > 2000) {
-                processedSoundHashes.clear();
-                lastCleanupTime = currentTime;
+        String header = "§b[Sound Capture]";
+        if (isCapturingSequence.get()) {
+            header = "§d[Sequence] §frecording §7- " + currentSequence.size() + " sounds";
+            String loop = patternDetector.describeActive();
+            if (loop != null) {
+                header += " §e| " + loop;
             }
+        }
+        if (heatmap != null) {
+            header += " §6| Heatmap: " + heatmap.getTotalEvents() + " sounds";
+        }
+        hud.tick(header, now);
+    }
 
-            SoundManager soundManager = mc.getSoundManager();
+    public void renderHud(GuiGraphics graphics, DeltaTracker deltaTracker) {
+        if (isActive()) {
+            hud.render(graphics);
+        }
+    }
 
-            // Access the SoundEngine directly using the access widener
-            SoundEngine soundEngine = ((SoundManagerAccessor) soundManager).getSoundEngine();
-            if (soundEngine == null) {
+    /**
+     * Sends a per-sound chat line if chat output is on and the per-second budget allows it.
+     */
+    private void sendRateLimitedChat(String message) {
+        if (!chatOutput) return;
+        if (chatLinesInWindow < CHAT_LINES_PER_SECOND) {
+            chatLinesInWindow++;
+            sendChatMessage(message);
+        } else {
+            suppressedChatLines++;
+        }
+    }
+
+    /**
+     * Registers the sound listener while any capture is active and removes it otherwise.
+     */
+    private void updateListener() {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.getSoundManager() == null) {
+            return;
+        }
+
+        boolean wanted = isActive();
+        if (wanted && !listenerRegistered) {
+            soundFilter.reloadIfChanged();
+            mc.getSoundManager().addListener(soundListener);
+            listenerRegistered = true;
+        } else if (!wanted && listenerRegistered) {
+            mc.getSoundManager().removeListener(soundListener);
+            listenerRegistered = false;
+        }
+    }
+
+    /**
+     * Called by the SoundEngine on the client thread each time a sound starts playing.
+     */
+    private void onPlaySound(SoundInstance sound, WeighedSoundEvents soundEvents, float range) {
+        try {
+            if (sound.getSound() == null || sound.getSound().getLocation() == null) {
                 return;
             }
 
-            // Get the playing sounds map
-            Map<SoundInstance, ?> playingSounds = ((SoundEngineAccessor) soundEngine).getInstanceToChannel();
-            if (playingSounds == null || playingSounds.isEmpty()) {
+            Identifier location = sound.getSound().getLocation();
+            SoundSource source = sound.getSource();
+            float volume = sound.getVolume();
+            float pitch = sound.getPitch();
+            double x = sound.getX();
+            double y = sound.getY();
+            double z = sound.getZ();
+
+            // Filter before building any strings, most sounds on a busy server are dropped here.
+            // Rules match the sound event id (minecraft:block.note_block.harp), not the file
+            if (!soundFilter.test(sound.getIdentifier(), source, volume, distanceSq(sound))) {
                 return;
             }
 
-            for (SoundInstance sound : playingSounds.keySet()) {
-                if (sound == null) continue;
-
-                try {
-                    int soundHash = System.identityHashCode(sound);
+            String sourceName = source != null ? source.getName() : "unknown";
+            String soundName = location.toString();
+            String soundId = getSoundId(soundName);
 
-                    // Skip if already processed
-                    if (processedSoundHashes.contains(soundHash)) {
-                        continue;
-                    }
-                    processedSoundHashes.add(soundHash);
-
-                    if (sound.getSound() == null || sound.getSound().getLocation() == null) {
-                        continue;
-                    }
-
-                    String sourceName = sound.getSource() != null ? sound.getSource().getName() : "unknown";
-
-                    // Skip music sounds
-                    if (sourceName.equalsIgnoreCase("music") || sourceName.equalsIgnoreCase("records")) {
-                        continue;
-                    }
+            // Relative sounds (UI, music) have no world position
+            if (heatmap != null && !sound.isRelative()) {
+                heatmap.record(soundName, x, y, z);
+            }
 
-                    String soundName = sound.getSound().getLocation().toString();
-                    String soundId = getSoundId(soundName);
-                    float volume = sound.getVolume();
-                    float pitch = sound.getPitch();
-                    double x = sound.getX();
-                    double y = sound.getY();
-                    double z = sound.getZ();
-
-                    processSound(soundName, soundId, sourceName, x, y, z, volume, pitch);
-                } catch (Exception e) {
-                    // Ignore individual sound errors
-                }
+            Entity entity = null;
+            Minecraft mc = Minecraft.getInstance();
+            if (isCapturingSequence.get() && !sound.isRelative() && mc.level != null) {
+                entity = entityGrid.nearest(mc.level, x, y, z);
             }
+
+            processSound(soundName, soundId, sourceName, x, y, z, volume, pitch, entity);
         } catch (Exception e) {
-            LOGGER.debug("Error checking sounds: " + e.getMessage());
+            LOGGER.debug("Error capturing sound: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Squared distance from the player to the sound. Relative sounds are positioned
+     * around the listener, so their offset is the distance.
+     */
+    private static double distanceSq(SoundInstance sound) {
+        if (sound.isRelative()) {
+            return sound.getX() * sound.getX() + sound.getY() * sound.getY() + sound.getZ() * sound.getZ();
+        }
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player == null) {
+            return 0;
         }
+        return mc.player.distanceToSqr(sound.getX(), sound.getY(), sound.getZ());
     }
 
     private void processSound(String soundName, String soundId, String sourceName,
-                              double x, double y, double z, float volume, float pitch) {
+                              double x, double y, double z, float volume, float pitch, Entity entity) {
 
-        if (isCapturing.get()) {
-            String message = String.format(
+        long currentTime = System.currentTimeMillis();
+        hud.record(soundId, volume, pitch, currentTime);
+
+        if (isCapturing.get() && chatOutput) {
+            sendRateLimitedChat(String.format(
                 "§b[Sound] §f%s §7| Vol: §a%.1f §7| Pitch: §d%.2f",
                 soundId, volume, pitch
-            );
-            sendChatMessage(message);
+            ));
         }
 
         if (isCapturingSequence.get()) {
-            long currentTime = System.currentTimeMillis();
-            GameSoundEvent event = new GameSoundEvent(
-                currentTime,
-                soundName,
-                soundId,
-                sourceName,
-                x, y, z,
-                volume,
-                pitch
-            );
-            currentSequence.add(event);
-
-            sendChatMessage(String.format(
-                "§d[Seq #%d] §f%s §7(%.2f pitch)",
-                currentSequence.size(), soundId, pitch
-            ));
+            int soundIndex = currentSequence.add(soundName);
+            gapStats.record(currentTime);
+            patternDetector.add(soundIndex, currentTime);
+
+            JsonObject json = new JsonObject();
+            json.addProperty("t", currentTime);
+            json.addProperty("sound", soundName);
+            json.addProperty("source", sourceName);
+            json.addProperty("x", x);
+            json.addProperty("y", y);
+            json.addProperty("z", z);
+            json.addProperty("volume", volume);
+            json.addProperty("pitch", pitch);
+            if (entity != null) {
+                JsonObject source = new JsonObject();
+                source.addProperty("type", EntityType.getKey(entity.getType()).toString());
+                source.addProperty("uuid", entity.getUUID().toString());
+                source.addProperty("name", entity.getName().getString());
+                source.addProperty("distance", Math.round(entityGrid.getLastDistance() * 100) / 100.0);
+                json.add("entity", source);
+            }
+            sequenceWriter.writeLine(json.toString());
+
+            if (chatOutput) {
+                sendRateLimitedChat(String.format(
+                    "§d[Seq #%d] §f%s §7(%.2f pitch)",
+                    currentSequence.size(), soundId, pitch
+                ));
+            }
         }
     }
 
@@ -210,77 +398,113 @@ public class SoundCapture {
         return fullName;
     }
 
-    private void saveSequenceToFile() {
-        try {
-            File sequenceDir = new File("sound_sequences");
-            if (!sequenceDir.exists()) {
-                sequenceDir.mkdirs();
-            }
-
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-            File sequenceFile = new File(sequenceDir, "sequence_" + timestamp + ".txt");
-
-            try (PrintWriter writer = new PrintWriter(new FileWriter(sequenceFile))) {
-                writer.println("=== Game Sound Sequence Recording ===");
-                writer.println("Recorded: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                writer.println("Total sounds: " + currentSequence.size());
-                writer.println();
-                writer.println("--- Sequence Pattern ---");
-
-                // Write the sequence pattern (simple names only)
-                StringBuilder pattern = new StringBuilder();
-                for (GameSoundEvent event : currentSequence) {
-                    pattern.append(event.soundId).append(" ");
+    /**
+     * Builds the human-readable report from the streamed JSONL file. Runs on the writer
+     * thread after the file is closed and reads the file line by line, so memory use does
+     * not depend on the length of the recording.
+     */
+    private void saveSequenceReport(Path jsonlFile, GapStats stats, List<String> patterns, int count) {
+        String fileName = jsonlFile.getFileName().toString();
+        Path reportFile = jsonlFile.resolveSibling(fileName.substring(0, fileName.length() - ".jsonl".length()) + ".txt");
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8))) {
+            writer.println("=== Game Sound Sequence Recording ===");
+            writer.println("Recorded: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            writer.println("Total sounds: " + count);
+            writer.println("Raw events: " + fileName);
+            writer.println();
+            writer.println("--- Sequence Pattern ---");
+
+            // Write the sequence pattern (simple names only)
+            try (BufferedReader reader = Files.newBufferedReader(jsonlFile, StandardCharsets.UTF_8)) {
+                boolean first = true;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!first) writer.print(' ');
+                    writer.print(getSoundId(JsonParser.parseString(line).getAsJsonObject().get("sound").getAsString()));
+                    first = false;
                 }
-                writer.println(pattern.toString().trim());
-                writer.println();
+            }
+            writer.println();
+            writer.println();
 
-                writer.println("--- Detailed Log ---");
-                writer.println(String.format("%-5s | %-9s | %-30s | %-10s | %-6s | %-5s",
-                    "Index", "Time (ms)", "Sound", "Source", "Volume", "Pitch"));
-                writer.println("-".repeat(80));
+            writer.println("--- Detailed Log ---");
+            writer.println(String.format("%-5s | %-9s | %-30s | %-10s | %-6s | %-5s | %s",
+                "Index", "Time (ms)", "Sound", "Source", "Volume", "Pitch", "Entity"));
+            writer.println("-".repeat(100));
 
-                long firstTime = currentSequence.isEmpty() ? 0 : currentSequence.get(0).timestamp;
+            try (BufferedReader reader = Files.newBufferedReader(jsonlFile, StandardCharsets.UTF_8)) {
                 int index = 1;
-                for (GameSoundEvent event : currentSequence) {
-                    writer.printf("%-5d | %-9d | %-30s | %-10s | %-6.2f | %-5.2f%n",
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JsonObject event = JsonParser.parseString(line).getAsJsonObject();
+                    String entity = "";
+                    if (event.has("entity")) {
+                        JsonObject source = event.getAsJsonObject("entity");
+                        entity = getSoundId(source.get("type").getAsString()) + " \"" + source.get("name").getAsString() + "\"";
+                    }
+                    writer.printf("%-5d | %-9d | %-30s | %-10s | %-6.2f | %-5.2f | %s%n",
                         index++,
-                        event.timestamp - firstTime,
-                        event.soundId,
-                        event.sourceName,
-                        event.volume,
-                        event.pitch
+                        event.get("t").getAsLong() - stats.firstTime,
+                        getSoundId(event.get("sound").getAsString()),
+                        event.get("source").getAsString(),
+                        event.get("volume").getAsFloat(),
+                        event.get("pitch").getAsFloat(),
+                        entity
                     );
                 }
+            }
 
-                writer.println();
-                writer.println("--- Timing Analysis ---");
-                if (currentSequence.size() > 1) {
-                    List<Long> gaps = new ArrayList<>();
-                    for (int i = 1; i < currentSequence.size(); i++) {
-                        gaps.add(currentSequence.get(i).timestamp - currentSequence.get(i - 1).timestamp);
-                    }
-                    double avgGap = gaps.stream().mapToLong(Long::longValue).average().orElse(0);
-                    long minGap = gaps.stream().mapToLong(Long::longValue).min().orElse(0);
-                    long maxGap = gaps.stream().mapToLong(Long::longValue).max().orElse(0);
+            writer.println();
+            writer.println("--- Timing Analysis ---");
+            if (stats.count > 1) {
+                writer.printf("Average gap between sounds: %.1f ms%n", stats.averageGap());
+                writer.printf("Minimum gap: %d ms%n", stats.minGap);
+                writer.printf("Maximum gap: %d ms%n", stats.maxGap);
+            }
 
-                    writer.printf("Average gap between sounds: %.1f ms%n", avgGap);
-                    writer.printf("Minimum gap: %d ms%n", minGap);
-                    writer.printf("Maximum gap: %d ms%n", maxGap);
-                }
+            writer.println();
+            writer.println("--- Repeating Patterns ---");
+            if (patterns.isEmpty()) {
+                writer.println("(No repeating patterns found)");
+            }
+            for (String line : patterns) {
+                writer.println(line);
+            }
 
-                writer.println();
-                writer.println("--- Full Sound Names ---");
-                for (GameSoundEvent event : currentSequence) {
-                    writer.println(event.fullName);
+            writer.println();
+            writer.println("--- Full Sound Names ---");
+            try (BufferedReader reader = Files.newBufferedReader(jsonlFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    writer.println(JsonParser.parseString(line).getAsJsonObject().get("sound").getAsString());
                 }
             }
+        } catch (Exception e) {
+            sendChatMessage("§c[Sequence Capture] Failed to save report: " + e.getMessage());
+            LOGGER.error("Failed to save sequence report", e);
+            return;
+        }
+
+        LOGGER.info("Saved sequence to: " + reportFile.toAbsolutePath());
+        sendChatMessage("§a[Sequence Capture] Saved " + count + " sounds to file!");
+        sendChatMessage("§7Saved to: sound_sequences/" + reportFile.getFileName());
+    }
 
-            LOGGER.info("Saved sequence to: " + sequenceFile.getAbsolutePath());
-            sendChatMessage("§7Saved to: sound_sequences/" + sequenceFile.getName());
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            sendChatMessage("§c[Sequence Capture] Failed to save file: " + e.getMessage());
-            LOGGER.error("Failed to save sequence file", e);
+            LOGGER.debug("Could not delete empty sequence file: " + e.getMessage());
+        }
+    }
+
+    public void onDisconnect() {
+        if (isCapturingSequence.get()) {
+            stopSequenceCapture();
+        }
+        if (heatmap != null) {
+            stopHeatmap();
         }
     }
 
@@ -293,6 +517,10 @@ public class SoundCapture {
         }
     }
 
+    private boolean isActive() {
+        return isCapturing.get() || isCapturingSequence.get() || heatmap != null;
+    }
+
     public boolean isCapturing() {
         return isCapturing.get();
     }
@@ -301,26 +529,48 @@ public class SoundCapture {
         return isCapturingSequence.get();
     }
 
-    private static class GameSoundEvent {
-        final long timestamp;
-        final String fullName;
-        final String soundId;
-        final String sourceName;
-        final double x, y, z;
-        final float volume;
-        final float pitch;
-
-        GameSoundEvent(long timestamp, String fullName, String soundId, String sourceName,
-                       double x, double y, double z, float volume, float pitch) {
-            this.timestamp = timestamp;
-            this.fullName = fullName;
-            this.soundId = soundId;
-            this.sourceName = sourceName;
-            this.x = x;
-            this.y = y;
-            this.z = z;
-            this.volume = volume;
-            this.pitch = pitch;
+    /**
+     * Running gap statistics, updated per event so the report needs no extra pass.
+     */
+    private static class GapStats {
+        long count;
+        long firstTime;
+        long lastTime;
+        long minGap;
+        long maxGap;
+
+        void reset() {
+            count = 0;
+            firstTime = 0;
+            lastTime = 0;
+            minGap = Long.MAX_VALUE;
+            maxGap = 0;
+        }
+
+        void record(long time) {
+            if (count == 0) {
+                firstTime = time;
+            } else {
+                long gap = time - lastTime;
+                minGap = Math.min(minGap, gap);
+                maxGap = Math.max(maxGap, gap);
+            }
+            lastTime = time;
+            count++;
+        }
+
+        double averageGap() {
+            return count > 1 ? (double) (lastTime - firstTime) / (count - 1) : 0;
+        }
+
+        GapStats copy() {
+            GapStats copy = new GapStats();
+            copy.count = count;
+            copy.firstTime = firstTime;
+            copy.lastTime = lastTime;
+            copy.minGap = minGap;
+            copy.maxGap = maxGap;
+            return copy;
         }
     }
 }
@@ -0,0 +1,158 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.phys.AABB;
+
+import java.util.Arrays;
+
+/**
+ * Finds the entity closest to a sound position.
+ * Entities are bucketed into a uniform XZ grid at most once per tick, the first time a
+ * sound needs attributing, so each sound only checks the entities in the 3x3 cells
+ * around it instead of scanning the whole level. An entity goes into every cell its
+ * bounding box overlaps, so boats, slimes and ghasts wider than a cell are still found.
+ * Buckets are linked lists threaded through reused arrays, so rebuilding allocates
+ * nothing once the arrays are big enough.
+ */
+public class SoundEntityGrid {
+    // 4-block cells; with MAX_DISTANCE <= cell size the neighbouring cells cover every candidate
+    private static final int CELL_SHIFT = 2;
+    private static final double MAX_DISTANCE = 4.0;
+    private static final double MAX_DISTANCE_SQ = MAX_DISTANCE * MAX_DISTANCE;
+    // Boxes spanning more cells than this per axis (oversized interaction entities) are checked for every sound
+    private static final int MAX_SPAN_CELLS = 8;
+
+    private final Long2IntOpenHashMap heads = new Long2IntOpenHashMap();
+    private Entity[] entities = new Entity[256];
+    private int[] next = new int[256];
+    private int size = 0;
+    private Entity[] large = new Entity[16];
+    private int largeSize = 0;
+    private boolean stale = true;
+    private double lastDistance;
+
+    public SoundEntityGrid() {
+        heads.defaultReturnValue(-1);
+    }
+
+    /**
+     * Marks the grid out of date. Called once per client tick.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Drops all entity references, e.g. when capture stops.
+     */
+    public void clear() {
+        Arrays.fill(entities, 0, size, null);
+        Arrays.fill(large, 0, largeSize, null);
+        heads.clear();
+        size = 0;
+        largeSize = 0;
+        stale = true;
+    }
+
+    /**
+     * Closest entity within {@link #MAX_DISTANCE} blocks of the position, measured to its
+     * bounding box, or null if there is none.
+     */
+    public Entity nearest(ClientLevel level, double x, double y, double z) {
+        if (stale) {
+            rebuild(level);
+        }
+
+        int cellX = (int) Math.floor(x) >> CELL_SHIFT;
+        int cellZ = (int) Math.floor(z) >> CELL_SHIFT;
+        Entity best = null;
+        double bestDistance = MAX_DISTANCE_SQ;
+
+        // The box point closest to the sound lies in one of the box's cells, which is a
+        // neighbour of the sound's cell when the point is within MAX_DISTANCE. Entities
+        // overlapping several of those cells are checked more than once, which is harmless.
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int i = heads.get(cellKey(cellX + dx, cellZ + dz)); i >= 0; i = next[i]) {
+                    double distance = distanceSq(entities[i].getBoundingBox(), x, y, z);
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = entities[i];
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < largeSize; i++) {
+            double distance = distanceSq(large[i].getBoundingBox(), x, y, z);
+            if (distance <= bestDistance) {
+                bestDistance = distance;
+                best = large[i];
+            }
+        }
+
+        lastDistance = best != null ? Math.sqrt(bestDistance) : -1;
+        return best;
+    }
+
+    /**
+     * Distance to the entity returned by the last {@link #nearest} call, or -1 if none was found.
+     */
+    public double getLastDistance() {
+        return lastDistance;
+    }
+
+    private void rebuild(ClientLevel level) {
+        Arrays.fill(entities, 0, size, null);
+        Arrays.fill(large, 0, largeSize, null);
+        heads.clear();
+        size = 0;
+        largeSize = 0;
+        stale = false;
+
+        for (Entity entity : level.entitiesForRendering()) {
+            AABB box = entity.getBoundingBox();
+            int minCellX = (int) Math.floor(box.minX) >> CELL_SHIFT;
+            int maxCellX = (int) Math.floor(box.maxX) >> CELL_SHIFT;
+            int minCellZ = (int) Math.floor(box.minZ) >> CELL_SHIFT;
+            int maxCellZ = (int) Math.floor(box.maxZ) >> CELL_SHIFT;
+
+            if (maxCellX - minCellX >= MAX_SPAN_CELLS || maxCellZ - minCellZ >= MAX_SPAN_CELLS) {
+                if (largeSize == large.length) {
+                    large = Arrays.copyOf(large, largeSize * 2);
+                }
+                large[largeSize++] = entity;
+                continue;
+            }
+
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    add(cellKey(cellX, cellZ), entity);
+                }
+            }
+        }
+    }
+
+    private void add(long key, Entity entity) {
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            next = Arrays.copyOf(next, size * 2);
+        }
+        entities[size] = entity;
+        next[size] = heads.get(key);
+        heads.put(key, size);
+        size++;
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static double distanceSq(AABB box, double x, double y, double z) {
+        double dx = Math.max(0, Math.max(box.minX - x, x - box.maxX));
+        double dy = Math.max(0, Math.max(box.minY - y, y - box.maxY));
+        double dz = Math.max(0, Math.max(box.minZ - z, z - box.maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
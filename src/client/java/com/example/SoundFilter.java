@@ -0,0 +1,277 @@
+package com.example;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.resources.Identifier;
+import net.minecraft.sounds.SoundSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * User-defined include/exclude rules for sound capture, loaded from
+ * config/servertools/sound_filters.json and reloaded when the file changes.
+ *
+ * Rules are compiled into bitmasks (one bit per rule, up to 64 rules): a character trie
+ * over sound event id prefixes ("namespace:path", as in /playsound) yields the rules
+ * whose prefix matches, a per-source table yields the rules that accept the sound's
+ * category, and only rules with volume or distance ranges need a further check.
+ * Testing a sound allocates nothing.
+ *
+ * A sound is captured if it matches at least one include rule (or there are no include
+ * rules) and matches no exclude rule. A rule matches when all of its fields match.
+ */
+public class SoundFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("SoundFilter");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int MAX_RULES = 64;
+    private static final long RELOAD_CHECK_MS = 1000;
+
+    private final Path configFile;
+    private FileTime loadedModifiedTime;
+    private long lastReloadCheck = 0;
+    private Compiled compiled = Compiled.EMPTY;
+
+    public SoundFilter() {
+        this.configFile = FabricLoader.getInstance().getConfigDir().resolve("servertools").resolve("sound_filters.json");
+    }
+
+    /**
+     * @param sound the sound event id, e.g. minecraft:block.note_block.harp
+     */
+    public boolean test(Identifier sound, SoundSource source, float volume, double distanceSq) {
+        return compiled.test(sound, source, volume, distanceSq);
+    }
+
+    /**
+     * Reloads the rules if the config file changed. Cheap enough to call every tick;
+     * the file is only checked once a second.
+     */
+    public void reloadIfChanged() {
+        long now = System.currentTimeMillis();
+        if (now - lastReloadCheck < RELOAD_CHECK_MS) return;
+        lastReloadCheck = now;
+
+        try {
+            if (!Files.exists(configFile)) {
+                writeDefaultConfig();
+            }
+
+            FileTime modified = Files.getLastModifiedTime(configFile);
+            if (modified.equals(loadedModifiedTime)) return;
+            loadedModifiedTime = modified;
+
+            String json = Files.readString(configFile, StandardCharsets.UTF_8);
+            compiled = compile(JsonParser.parseString(json).getAsJsonObject());
+            LOGGER.info("Loaded {} sound filter rule(s) from {}", compiled.ruleCount, configFile);
+        } catch (Exception e) {
+            // Keep the previous rules so a half-saved file does not drop the filter
+            LOGGER.warn("Failed to load sound filters from {}: {}", configFile, e.getMessage());
+        }
+    }
+
+    private void writeDefaultConfig() throws IOException {
+        JsonObject root = new JsonObject();
+        JsonArray rules = new JsonArray();
+
+        // Same behavior as before filters existed: skip music and jukebox records
+        JsonObject music = new JsonObject();
+        music.addProperty("action", "exclude");
+        JsonArray sources = new JsonArray();
+        sources.add("music");
+        sources.add("record");
+        music.add("sources", sources);
+        rules.add(music);
+
+        root.add("rules", rules);
+        root.addProperty("_help", "action: include|exclude. Optional fields: sound (sound event id prefix as used by "
+                + "/playsound, e.g. \"minecraft:block.note_block\" or \"minecraft:entity.\"), sources (list of: "
+                + sourceNames() + "), minVolume, maxVolume, minDistance, maxDistance.");
+
+        Files.createDirectories(configFile.getParent());
+        Files.writeString(configFile, GSON.toJson(root), StandardCharsets.UTF_8);
+    }
+
+    private static Compiled compile(JsonObject root) {
+        Compiled result = new Compiled();
+        JsonArray rules = root.has("rules") ? root.getAsJsonArray("rules") : new JsonArray();
+
+        int ruleCount = Math.min(rules.size(), MAX_RULES);
+        if (rules.size() > MAX_RULES) {
+            LOGGER.warn("Only the first {} sound filter rules are used ({} defined)", MAX_RULES, rules.size());
+        }
+
+        result.ruleCount = ruleCount;
+        result.minVolume = new float[ruleCount];
+        result.maxVolume = new float[ruleCount];
+        result.minDistanceSq = new double[ruleCount];
+        result.maxDistanceSq = new double[ruleCount];
+
+        for (int i = 0; i < ruleCount; i++) {
+            JsonObject rule = rules.get(i).getAsJsonObject();
+            long bit = 1L << i;
+
+            String action = rule.has("action") ? rule.get("action").getAsString() : "exclude";
+            if (action.equalsIgnoreCase("include")) {
+                result.includeMask |= bit;
+            } else {
+                result.excludeMask |= bit;
+            }
+
+            // Sound event id prefix, e.g. "minecraft:block.note_block" or just "minecraft:"
+            if (rule.has("sound")) {
+                result.prefixes.insert(rule.get("sound").getAsString(), bit);
+            } else {
+                result.prefixes.root.mask |= bit;
+            }
+
+            if (rule.has("sources")) {
+                for (JsonElement element : rule.getAsJsonArray("sources")) {
+                    String name = element.getAsString();
+                    boolean known = false;
+                    for (SoundSource source : SoundSource.values()) {
+                        if (source.getName().equalsIgnoreCase(name) || source.name().equalsIgnoreCase(name)) {
+                            result.sourceMasks[source.ordinal()] |= bit;
+                            known = true;
+                        }
+                    }
+                    if (!known) {
+                        LOGGER.warn("Sound filter rule {} has unknown source \"{}\"; known sources: {}",
+                            i + 1, name, sourceNames());
+                    }
+                }
+            } else {
+                result.anySourceMask |= bit;
+                for (int s = 0; s < result.sourceMasks.length; s++) {
+                    result.sourceMasks[s] |= bit;
+                }
+            }
+
+            result.minVolume[i] = rule.has("minVolume") ? rule.get("minVolume").getAsFloat() : Float.NEGATIVE_INFINITY;
+            result.maxVolume[i] = rule.has("maxVolume") ? rule.get("maxVolume").getAsFloat() : Float.POSITIVE_INFINITY;
+            double minDistance = rule.has("minDistance") ? rule.get("minDistance").getAsDouble() : 0;
+            double maxDistance = rule.has("maxDistance") ? rule.get("maxDistance").getAsDouble() : Double.POSITIVE_INFINITY;
+            result.minDistanceSq[i] = minDistance * minDistance;
+            result.maxDistanceSq[i] = maxDistance * maxDistance;
+
+            if (rule.has("minVolume") || rule.has("maxVolume") || rule.has("minDistance") || rule.has("maxDistance")) {
+                result.rangeMask |= bit;
+            }
+        }
+
+        return result;
+    }
+
+    private static String sourceNames() {
+        StringBuilder names = new StringBuilder();
+        for (SoundSource source : SoundSource.values()) {
+            if (!names.isEmpty()) names.append(", ");
+            names.append(source.getName());
+        }
+        return names.toString();
+    }
+
+    private static class Compiled {
+        static final Compiled EMPTY = new Compiled();
+
+        final PrefixTrie prefixes = new PrefixTrie();
+        final long[] sourceMasks = new long[SoundSource.values().length];
+        // Rules without a source list, used for sounds that have no source
+        long anySourceMask;
+        long includeMask;
+        long excludeMask;
+        long rangeMask;
+        int ruleCount;
+        float[] minVolume = new float[0];
+        float[] maxVolume = new float[0];
+        double[] minDistanceSq = new double[0];
+        double[] maxDistanceSq = new double[0];
+
+        boolean test(Identifier sound, SoundSource source, float volume, double distanceSq) {
+            if (ruleCount == 0) return true;
+
+            long sourceMask = source != null ? sourceMasks[source.ordinal()] : anySourceMask;
+            long matched = prefixes.match(sound) & sourceMask;
+
+            // Only rules with volume/distance ranges need a per-rule check
+            long ranged = matched & rangeMask;
+            while (ranged != 0) {
+                int i = Long.numberOfTrailingZeros(ranged);
+                ranged &= ranged - 1;
+                if (volume < minVolume[i] || volume > maxVolume[i]
+                        || distanceSq < minDistanceSq[i] || distanceSq > maxDistanceSq[i]) {
+                    matched &= ~(1L << i);
+                }
+            }
+
+            if ((matched & excludeMask) != 0) return false;
+            return includeMask == 0 || (matched & includeMask) != 0;
+        }
+    }
+
+    /**
+     * Character trie over "namespace:path" where every node carries the mask of rules whose
+     * prefix ends there. Matching ORs the masks along the path of the sound name.
+     */
+    private static class PrefixTrie {
+        final Node root = new Node();
+
+        void insert(String prefix, long bit) {
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.mask |= bit;
+        }
+
+        /**
+         * Walks namespace, ':' and path directly from the identifier instead of
+         * building the full "namespace:path" string.
+         */
+        long match(Identifier sound) {
+            long mask = root.mask;
+            Node node = root;
+
+            String namespace = sound.getNamespace();
+            for (int i = 0; i < namespace.length(); i++) {
+                node = node.children.get(namespace.charAt(i));
+                if (node == null) return mask;
+                mask |= node.mask;
+            }
+
+            node = node.children.get(':');
+            if (node == null) return mask;
+            mask |= node.mask;
+
+            String path = sound.getPath();
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.get(path.charAt(i));
+                if (node == null) return mask;
+                mask |= node.mask;
+            }
+            return mask;
+        }
+    }
+
+    private static class Node {
+        final Char2ObjectOpenHashMap<Node> children = new Char2ObjectOpenHashMap<>();
+        long mask;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Accumulates sound events into a sparse grid of 1-block cells with a count per
+ * (cell, sound) pair, and writes it to a compact binary file.
+ *
+ * Each pair is one entry in a primitive long->int map, keyed by the packed cell
+ * coordinates and sound id. Once the map holds {@link #MAX_ENTRIES} entries it is
+ * handed to a writer thread as a segment and a fresh map is started, so memory stays
+ * bounded no matter how long the recording runs. Readers sum counts for keys that
+ * appear in more than one segment.
+ *
+ * File layout (big-endian, varints are unsigned LEB128):
+ * <pre>
+ * int magic "STSH", int version, int cell size
+ * repeated: byte 1, int entry count, entries sorted by unsigned key:
+ *           varint key delta from the previous entry, varint count
+ * byte 2, int name count, UTF sound names indexed by sound id
+ * byte 0
+ * </pre>
+ * Key bits from high to low: x (21, offset), z (21, offset), y (10, offset), sound id (12).
+ */
+public class SoundHeatmap {
+    private static final Logger LOGGER = LoggerFactory.getLogger("SoundHeatmap");
+
+    private static final int MAGIC = 0x53545348;
+    private static final int VERSION = 1;
+    private static final int CELL_SIZE = 1;
+
+    private static final int SOUND_BITS = 12;
+    private static final int Y_BITS = 10;
+    private static final int XZ_BITS = 21;
+    private static final int SOUND_SHIFT = 0;
+    private static final int Y_SHIFT = SOUND_BITS;
+    private static final int Z_SHIFT = Y_SHIFT + Y_BITS;
+    private static final int X_SHIFT = Z_SHIFT + XZ_BITS;
+    private static final int Y_OFFSET = 1 << (Y_BITS - 1);
+    private static final int XZ_OFFSET = 1 << (XZ_BITS - 1);
+
+    private static final int MAX_SOUNDS = 1 << SOUND_BITS;
+    // Sounds seen after the id space is full are counted under this id
+    private static final int OTHER_SOUND_ID = MAX_SOUNDS - 1;
+    // About 20 MB per map at the default load factor
+    private static final int MAX_ENTRIES = 1 << 20;
+
+    private static final byte TAG_END = 0;
+    private static final byte TAG_SEGMENT = 1;
+    private static final byte TAG_NAMES = 2;
+
+    private final Path path;
+    private final ExecutorService writerThread;
+    private final Object2IntMap<String> soundIds = new Object2IntOpenHashMap<>();
+    private final List<String> soundNames = new ArrayList<>();
+    private Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+    private final DataOutputStream out;
+    private long totalEvents = 0;
+    private long skippedEvents = 0;
+    private long writtenEntries = 0;
+
+    public SoundHeatmap(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(CELL_SIZE);
+
+        this.writerThread = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ST-SoundHeatmap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        soundIds.defaultReturnValue(-1);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    /**
+     * Counts one sound at a world position. Called on the client thread.
+     */
+    public void record(String soundName, double x, double y, double z) {
+        int cellX = (int) Math.floor(x / CELL_SIZE) + XZ_OFFSET;
+        int cellY = (int) Math.floor(y / CELL_SIZE) + Y_OFFSET;
+        int cellZ = (int) Math.floor(z / CELL_SIZE) + XZ_OFFSET;
+        if (cellX < 0 || cellX >= 1 << XZ_BITS || cellZ < 0 || cellZ >= 1 << XZ_BITS
+                || cellY < 0 || cellY >= 1 << Y_BITS) {
+            skippedEvents++;
+            return;
+        }
+
+        long key = ((long) cellX << X_SHIFT)
+                | ((long) cellZ << Z_SHIFT)
+                | ((long) cellY << Y_SHIFT)
+                | ((long) soundId(soundName) << SOUND_SHIFT);
+        counts.addTo(key, 1);
+        totalEvents++;
+
+        if (counts.size() >= MAX_ENTRIES) {
+            spillSegment();
+        }
+    }
+
+    /**
+     * Writes the remaining entries and the sound names, then closes the file.
+     * The returned future completes on the writer thread.
+     */
+    public CompletableFuture<Void> close() {
+        spillSegment();
+
+        List<String> names = new ArrayList<>(soundNames);
+        if (names.size() == OTHER_SOUND_ID) {
+            names.add("<other>");
+        }
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(() -> {
+            try (DataOutputStream stream = out) {
+                stream.writeByte(TAG_NAMES);
+                stream.writeInt(names.size());
+                for (String name : names) {
+                    stream.writeUTF(name);
+                }
+                stream.writeByte(TAG_END);
+            } catch (IOException e) {
+                LOGGER.error("Failed to finish sound heatmap {}", path, e);
+            }
+            if (skippedEvents > 0) {
+                LOGGER.info("Skipped {} sounds outside the heatmap coordinate range", skippedEvents);
+            }
+        }, writerThread);
+        writerThread.shutdown();
+        return closed;
+    }
+
+    /**
+     * Total (cell, sound) entries written to the file. Only final once {@link #close()} completed.
+     */
+    public long getWrittenEntries() {
+        return writtenEntries;
+    }
+
+    private int soundId(String soundName) {
+        int id = soundIds.getInt(soundName);
+        if (id >= 0) {
+            return id;
+        }
+        if (soundNames.size() >= OTHER_SOUND_ID) {
+            return OTHER_SOUND_ID;
+        }
+        id = soundNames.size();
+        soundIds.put(soundName, id);
+        soundNames.add(soundName);
+        return id;
+    }
+
+    private void spillSegment() {
+        if (counts.isEmpty()) return;
+
+        Long2IntOpenHashMap segment = counts;
+        counts = new Long2IntOpenHashMap();
+        writerThread.execute(() -> writeSegment(segment));
+    }
+
+    private void writeSegment(Long2IntOpenHashMap segment) {
+        long[] keys = segment.keySet().toLongArray();
+        LongArrays.quickSort(keys, Long::compareUnsigned);
+
+        try {
+            out.writeByte(TAG_SEGMENT);
+            out.writeInt(keys.length);
+            long previous = 0;
+            for (long key : keys) {
+                writeVarLong(key - previous);
+                writeVarLong(segment.get(key));
+                previous = key;
+            }
+            writtenEntries += keys.length;
+        } catch (IOException e) {
+            LOGGER.error("Failed to write sound heatmap segment to {}", path, e);
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated on-screen panel for sound capture.
+ * Sounds only bump counters when they play; the panel text is rebuilt once per tick
+ * and the HUD just draws the cached lines, so a busy server costs one map update per
+ * sound instead of one chat message.
+ */
+public class SoundHud {
+    private static final int MAX_LINES = 12;
+    // Sounds not heard for this long drop off the panel
+    private static final long STALE_MS = 10_000;
+
+    private final Map<String, Entry> entries = new Object2ObjectOpenHashMap<>();
+    private final List<String> lines = new ArrayList<>();
+    private String header = "";
+    private int panelWidth = 0;
+    private boolean dirty = false;
+    private long lastRebuild = 0;
+
+    public void record(String soundId, float volume, float pitch, long time) {
+        Entry entry = entries.get(soundId);
+        if (entry == null) {
+            entry = new Entry(soundId);
+            entries.put(soundId, entry);
+        }
+        entry.count++;
+        entry.lastVolume = volume;
+        entry.lastPitch = pitch;
+        entry.lastSeen = time;
+        dirty = true;
+    }
+
+    public void clear() {
+        entries.clear();
+        lines.clear();
+        dirty = false;
+    }
+
+    /**
+     * Rebuilds the cached panel lines. Called once per client tick.
+     */
+    public void tick(String newHeader, long now) {
+        // Rebuild at least once a second so stale sounds drop off even when nothing new plays
+        if (!dirty && newHeader.equals(header) && now - lastRebuild < 1000) return;
+        header = newHeader;
+        dirty = false;
+        lastRebuild = now;
+
+        List<Entry> recent = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (now - entry.lastSeen <= STALE_MS) {
+                recent.add(entry);
+            }
+        }
+        recent.sort((a, b) -> Long.compare(b.lastSeen, a.lastSeen));
+
+        Minecraft mc = Minecraft.getInstance();
+        lines.clear();
+        panelWidth = mc.font.width(header);
+        for (int i = 0; i < recent.size() && i < MAX_LINES; i++) {
+            Entry entry = recent.get(i);
+            String line = String.format("§f%s §7x%d | Vol: §a%.1f §7| Pitch: §d%.2f",
+                    entry.soundId, entry.count, entry.lastVolume, entry.lastPitch);
+            lines.add(line);
+            panelWidth = Math.max(panelWidth, mc.font.width(line));
+        }
+    }
+
+    public void render(GuiGraphics graphics) {
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.options.hideGui) return;
+
+        int x = 4;
+        int y = 4;
+        int lineHeight = mc.font.lineHeight + 1;
+
+        graphics.fill(x - 2, y - 2, x + panelWidth + 2, y + lineHeight * (lines.size() + 1), 0x90000000);
+
+        graphics.drawString(mc.font, header, x, y, 0xFFFFFFFF, false);
+        for (String line : lines) {
+            y += lineHeight;
+            graphics.drawString(mc.font, line, x, y, 0xFFFFFFFF, false);
+        }
+    }
+
+    private static class Entry {
+        final String soundId;
+        int count;
+        float lastVolume;
+        float lastPitch;
+        long lastSeen;
+
+        Entry(String soundId) {
+            this.soundId = soundId;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Finds repeating motifs in a stream of interned sound ids while it is being recorded.
+ * For every candidate period p up to {@link #MAX_PERIOD} it keeps the length of the
+ * current run where id[i] == id[i - p], so each event costs a fixed MAX_PERIOD
+ * comparisons no matter how long the recording is. When a run ends after at least
+ * {@link #MIN_REPEATS} cycles, its motif is normalized to its smallest rotation and
+ * counted, so the same loop entered at different phases is reported once.
+ */
+public class SoundPatternDetector {
+    private static final int MAX_PERIOD = 32;
+    private static final int MIN_REPEATS = 3;
+    private static final int RING_SIZE = MAX_PERIOD + 1;
+
+    private final int[] recentIds = new int[RING_SIZE];
+    private final long[] recentTimes = new long[RING_SIZE];
+    private long count = 0;
+
+    // Per period: current run length and the sum of time deltas over that run
+    private final int[] matchLength = new int[MAX_PERIOD + 1];
+    private final long[] deltaSum = new long[MAX_PERIOD + 1];
+
+    private final Map<IntArrayList, Motif> motifs = new HashMap<>();
+
+    public void add(int soundId, long time) {
+        int maxPeriod = (int) Math.min(MAX_PERIOD, count);
+        for (int p = 1; p <= maxPeriod; p++) {
+            int slot = ringIndex(count - p);
+            if (recentIds[slot] == soundId) {
+                matchLength[p]++;
+                deltaSum[p] += time - recentTimes[slot];
+            } else if (matchLength[p] > 0) {
+                endRun(p);
+            }
+        }
+
+        int slot = ringIndex(count);
+        recentIds[slot] = soundId;
+        recentTimes[slot] = time;
+        count++;
+    }
+
+    /**
+     * Closes all open runs. Call once the recording has stopped.
+     */
+    public void finish() {
+        for (int p = 1; p <= MAX_PERIOD; p++) {
+            if (matchLength[p] > 0) {
+                endRun(p);
+            }
+        }
+    }
+
+    public void reset() {
+        count = 0;
+        Arrays.fill(matchLength, 0);
+        Arrays.fill(deltaSum, 0);
+        motifs.clear();
+    }
+
+    /**
+     * Short description of the loop currently repeating, or null if there is none.
+     * The smallest active period is always the primitive one.
+     */
+    public String describeActive() {
+        for (int p = 1; p <= MAX_PERIOD; p++) {
+            if (matchLength[p] >= (MIN_REPEATS - 1) * p) {
+                long cycleMs = deltaSum[p] / matchLength[p];
+                return "loop of " + p + " x" + ((matchLength[p] + p) / p) + " (~" + cycleMs + " ms)";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Report lines for all motifs found, most sounds covered first.
+     */
+    public List<String> describeMotifs(IntFunction<String> soundNames, int limit) {
+        List<Motif> sorted = new ArrayList<>(motifs.values());
+        sorted.sort((a, b) -> Long.compare((long) b.totalRepeats * b.ids.length, (long) a.totalRepeats * a.ids.length));
+
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < sorted.size() && i < limit; i++) {
+            Motif motif = sorted.get(i);
+            lines.add(String.format("Period %d sounds, ~%d ms/cycle, %d run(s), %d repeats total (max %d in a row):",
+                motif.ids.length, motif.cycleMsSum / motif.runs, motif.runs, motif.totalRepeats, motif.maxRepeats));
+
+            StringBuilder sb = new StringBuilder("  ");
+            for (int j = 0; j < motif.ids.length; j++) {
+                if (j > 0) sb.append(" -> ");
+                sb.append(soundNames.apply(motif.ids[j]));
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    private void endRun(int period) {
+        int length = matchLength[period];
+        long cycleMs = deltaSum[period] / length;
+        matchLength[period] = 0;
+        deltaSum[period] = 0;
+
+        int repeats = (length + period) / period;
+        if (repeats < MIN_REPEATS) return;
+
+        // The last `period` events before the current one are one full cycle of the run
+        int[] cycle = new int[period];
+        for (int i = 0; i < period; i++) {
+            cycle[i] = recentIds[ringIndex(count - period + i)];
+        }
+        if (hasSmallerPeriod(cycle)) return;
+
+        IntArrayList key = IntArrayList.wrap(smallestRotation(cycle));
+        Motif motif = motifs.computeIfAbsent(key, k -> new Motif(k.toIntArray()));
+        motif.runs++;
+        motif.totalRepeats += repeats;
+        motif.maxRepeats = Math.max(motif.maxRepeats, repeats);
+        motif.cycleMsSum += cycleMs;
+    }
+
+    private static boolean hasSmallerPeriod(int[] cycle) {
+        int n = cycle.length;
+        for (int q = 1; q < n; q++) {
+            if (n % q != 0) continue;
+            boolean periodic = true;
+            for (int i = q; i < n && periodic; i++) {
+                periodic = cycle[i] == cycle[i - q];
+            }
+            if (periodic) return true;
+        }
+        return false;
+    }
+
+    private static int[] smallestRotation(int[] cycle) {
+        int n = cycle.length;
+        int best = 0;
+        for (int start = 1; start < n; start++) {
+            for (int i = 0; i < n; i++) {
+                int a = cycle[(start + i) % n];
+                int b = cycle[(best + i) % n];
+                if (a != b) {
+                    if (a < b) best = start;
+                    break;
+                }
+            }
+        }
+
+        int[] rotated = new int[n];
+        for (int i = 0; i < n; i++) {
+            rotated[i] = cycle[(best + i) % n];
+        }
+        return rotated;
+    }
+
+    private static int ringIndex(long position) {
+        return (int) (position % RING_SIZE);
+    }
+
+    private static class Motif {
+        final int[] ids;
+        int runs;
+        int totalRepeats;
+        int maxRepeats;
+        long cycleMsSum;
+
+        Motif(int[] ids) {
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running tally of a sound sequence recording: an event counter plus an intern table of
+ * sound names. The events themselves are streamed to disk as they happen, so only what the
+ * pattern detector and HUD read is kept in memory, and it grows with the number of distinct
+ * sounds rather than with the number of events. Not thread-safe; sounds are recorded on the
+ * client thread.
+ */
+public class SoundSequence {
+    private final InternTable soundNames = new InternTable();
+    private int size = 0;
+
+    /**
+     * Counts an event and returns the interned id of its sound name.
+     */
+    public int add(String soundName) {
+        size++;
+        return soundNames.intern(soundName);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        soundNames.clear();
+        size = 0;
+    }
+
+    /**
+     * Full sound name for an interned id, e.g. "minecraft:entity.player.hurt".
+     */
+    public String soundName(int soundId) {
+        return soundNames.get(soundId);
+    }
+
+    /**
+     * Maps strings to dense int ids in insertion order.
+     */
+    public static class InternTable {
+        private final Object2IntMap<String> ids = new Object2IntOpenHashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        public InternTable() {
+            ids.defaultReturnValue(-1);
+        }
+
+        public int intern(String value) {
+            int id = ids.getInt(value);
+            if (id < 0) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        public String get(int id) {
+            return values.get(id);
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+        public void clear() {
+            ids.clear();
+            values.clear();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.mixin.client;
+
+import com.example.MapHarvester;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.world.level.saveddata.maps.MapId;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import java.util.Map;
+
+@Mixin(ClientLevel.class)
+public interface ClientLevelAccessor extends MapHarvester.ClientLevelAccessor {
+
+    @Invoker("getAllMapData")
+    Map<MapId, MapItemSavedData> invokeGetAllMapData();
+}
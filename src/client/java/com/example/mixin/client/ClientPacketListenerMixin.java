@@ -1,10 +1,17 @@
 package com.example.mixin.client;
 
 import com.example.ChunkDownloader;
+import com.example.MapCapture;
+import com.example.MapHarvester;
+import com.example.MenuCapture;
+import com.example.MenuRecorder;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundContainerSetContentPacket;
+import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
 import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundMapItemDataPacket;
 import net.minecraft.world.level.chunk.LevelChunk;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -31,4 +38,23 @@ public class ClientPacketListenerMixin {
             downloader.saveChunk(chunk);
         }
     }
+
+    @Inject(method = "handleMapItemData", at = @At("TAIL"))
+    private void onMapData(ClientboundMapItemDataPacket packet, CallbackInfo ci) {
+        boolean hasColors = packet.colorPatch().isPresent();
+        MapHarvester.getInstance().onMapData(packet.mapId(), hasColors);
+        MapCapture.getInstance().onMapData(packet.mapId(), hasColors);
+    }
+
+    @Inject(method = "handleContainerContent", at = @At("TAIL"))
+    private void onContainerContent(ClientboundContainerSetContentPacket packet, CallbackInfo ci) {
+        MenuCapture.getInstance().onContainerUpdate(packet.containerId());
+        MenuRecorder.getInstance().onContainerUpdate(packet.containerId());
+    }
+
+    @Inject(method = "handleContainerSetSlot", at = @At("TAIL"))
+    private void onContainerSlot(ClientboundContainerSetSlotPacket packet, CallbackInfo ci) {
+        MenuCapture.getInstance().onContainerUpdate(packet.getContainerId());
+        MenuRecorder.getInstance().onContainerUpdate(packet.getContainerId());
+    }
 }
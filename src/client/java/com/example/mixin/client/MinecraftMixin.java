@@ -1,6 +1,13 @@
 package com.example.mixin.client;
 
 import com.example.ChunkDownloader;
+import com.example.MapCapture;
+import com.example.MapHarvester;
+import com.example.MenuCapture;
+import com.example.MenuRecorder;
+import com.example.NPCCapture;
+import com.example.NPCDiscovery;
+import com.example.SoundCapture;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.Screen;
 import org.spongepowered.asm.mixin.Mixin;
@@ -14,5 +21,12 @@ public class MinecraftMixin {
     @Inject(method = "disconnect(Lnet/minecraft/client/gui/screens/Screen;Z)V", at = @At("HEAD"))
     private void onDisconnect(Screen screen, boolean bl, CallbackInfo ci) {
         ChunkDownloader.getInstance().onDisconnect();
+        SoundCapture.getInstance().onDisconnect();
+        MapHarvester.getInstance().onDisconnect();
+        MapCapture.getInstance().onDisconnect();
+        MenuCapture.getInstance().onDisconnect();
+        MenuRecorder.getInstance().onDisconnect();
+        NPCCapture.getInstance().onDisconnect();
+        NPCDiscovery.getInstance().onDisconnect();
     }
 }
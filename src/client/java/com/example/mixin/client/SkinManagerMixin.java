@@ -0,0 +1,23 @@
+package com.example.mixin.client;
+
+import com.example.SkinExporter;
+import net.minecraft.client.renderer.texture.SkinTextureDownloader;
+import net.minecraft.client.resources.SkinManager;
+import net.minecraft.server.Services;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+@Mixin(SkinManager.class)
+public class SkinManagerMixin {
+
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void onInit(Path skinDirectory, Services services, SkinTextureDownloader downloader, Executor executor, CallbackInfo ci) {
+        // The skin cache lives under the launcher's asset directory, which the client does not expose
+        SkinExporter.getInstance().setCacheDirectory(skinDirectory);
+    }
+}
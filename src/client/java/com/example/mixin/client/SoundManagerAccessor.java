@@ -1,12 +0,0 @@
-package com.example.mixin.client;
-
-import net.minecraft.client.sounds.SoundEngine;
-import net.minecraft.client.sounds.SoundManager;
-import org.spongepowered.asm.mixin.Mixin;
-import org.spongepowered.asm.mixin.gen.Accessor;
-
-@Mixin(SoundManager.class)
-public interface SoundManagerAccessor {
-    @Accessor("soundEngine")
-    SoundEngine getSoundEngine();
-}